@@ -0,0 +1,69 @@
+package com.library.admission;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Puts every API request through the {@link AdmissionGate} under its endpoint group, answering 503 with a
+ * Retry-After header when no permit frees up in time
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AdmissionControlFilter extends OncePerRequestFilter {
+
+    private final AdmissionGate admissionGate;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !admissionGate.isEnabled() || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        AdmissionGate.Group group = groupOf(request.getRequestURI());
+        AdmissionGate.Permit permit;
+        try {
+            permit = admissionGate.tryAdmit(group);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ServletException("Interrupted while waiting for admission", e);
+        }
+        if (permit == null) {
+            log.debug("Turned away {} {} ({} group saturated)", request.getMethod(), request.getRequestURI(), group);
+            response.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            response.setHeader("Retry-After", "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"message\":\"Server busy, please retry\"}");
+            return;
+        }
+        try (permit) {
+            chain.doFilter(request, response);
+        }
+    }
+
+    /**
+     * Endpoint group of a request path: statistics and metrics (wherever they live) are reporting, the rest of
+     * borrowings and holds is circulation, and everything else is general
+     */
+    static AdmissionGate.Group groupOf(String path) {
+        if (path.endsWith("/statistics") || path.endsWith("/stats") || path.startsWith("/api/metrics")) {
+            return AdmissionGate.Group.REPORTING;
+        }
+        if (path.startsWith("/api/borrowings") || path.startsWith("/api/holds")) {
+            return AdmissionGate.Group.CIRCULATION;
+        }
+        return AdmissionGate.Group.GENERAL;
+    }
+}
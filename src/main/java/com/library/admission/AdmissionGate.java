@@ -0,0 +1,158 @@
+package com.library.admission;
+
+import com.library.dto.AdmissionStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Admits requests in proportion to the database connection pool, so that with virtual threads the excess waits
+ * here in FIFO order (or is turned away after a short wait) instead of piling up on the pool's connection timeout.
+ * <p>
+ * All groups share one fair semaphore sized to the pool. Everything but circulation also goes through a smaller
+ * shared semaphore, which keeps a few permits in reserve for circulation, and reporting is capped further still,
+ * so a burst of reports can never take the connections checkouts and returns need. Permits are taken from the most
+ * specific semaphore to the pool-wide one, always in that order, and released in reverse.
+ */
+@Component
+public class AdmissionGate {
+
+    public enum Group {
+        CIRCULATION, GENERAL, REPORTING
+    }
+
+    private final boolean enabled;
+    private final long timeoutMs;
+    private final Map<Group, Semaphore[]> chains = new EnumMap<>(Group.class);
+    private final Map<Group, Integer> permits = new EnumMap<>(Group.class);
+    private final Map<Group, Counters> counters = new EnumMap<>(Group.class);
+
+    public AdmissionGate(@Value("${library.admission.enabled:false}") boolean enabled,
+                         @Value("${library.admission.permits:${spring.datasource.hikari.maximum-pool-size:10}}") int poolSize,
+                         @Value("${library.admission.circulation-reserved:3}") int circulationReserved,
+                         @Value("${library.admission.reporting-permits:2}") int reportingPermits,
+                         @Value("${library.admission.timeout-ms:5000}") long timeoutMs) {
+        this.enabled = enabled;
+        this.timeoutMs = timeoutMs;
+        int poolPermits = Math.max(1, poolSize);
+        int nonCirculationPermits = Math.max(1, poolPermits - circulationReserved);
+        int reportPermits = Math.max(1, Math.min(reportingPermits, nonCirculationPermits));
+        Semaphore pool = new Semaphore(poolPermits, true);
+        Semaphore nonCirculation = new Semaphore(nonCirculationPermits, true);
+        Semaphore reporting = new Semaphore(reportPermits, true);
+
+        permits.put(Group.CIRCULATION, poolPermits);
+        permits.put(Group.GENERAL, nonCirculationPermits);
+        permits.put(Group.REPORTING, reportPermits);
+
+        chains.put(Group.CIRCULATION, new Semaphore[]{pool});
+        chains.put(Group.GENERAL, new Semaphore[]{nonCirculation, pool});
+        chains.put(Group.REPORTING, new Semaphore[]{reporting, nonCirculation, pool});
+        for (Group group : Group.values()) {
+            counters.put(group, new Counters());
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Wait (up to the configured timeout) for the group's permits; null when the request should be turned away.
+     * The returned permit must be closed once the request is done.
+     */
+    public Permit tryAdmit(Group group) throws InterruptedException {
+        if (!enabled) {
+            return Permit.NONE;
+        }
+        Counters stats = counters.get(group);
+        Semaphore[] chain = chains.get(group);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        int acquired = 0;
+        try {
+            for (Semaphore semaphore : chain) {
+                if (!semaphore.tryAcquire(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS)) {
+                    break;
+                }
+                acquired++;
+            }
+        } finally {
+            if (acquired < chain.length) {
+                // Timed out or interrupted part-way: give back what was taken
+                for (int i = acquired - 1; i >= 0; i--) {
+                    chain[i].release();
+                }
+            }
+        }
+        if (acquired < chain.length) {
+            stats.rejected.increment();
+            return null;
+        }
+
+        stats.admitted.increment();
+        stats.inFlight.incrementAndGet();
+        return new Permit(() -> {
+            stats.inFlight.decrementAndGet();
+            for (int i = chain.length - 1; i >= 0; i--) {
+                chain[i].release();
+            }
+        });
+    }
+
+    /**
+     * Admission counters and current load of every group
+     */
+    public List<AdmissionStats> getStatistics() {
+        List<AdmissionStats> statistics = new ArrayList<>();
+        for (Group group : Group.values()) {
+            Counters stats = counters.get(group);
+            statistics.add(AdmissionStats.builder()
+                    .group(group.name())
+                    .permits(permits.get(group))
+                    .inFlight(stats.inFlight.get())
+                    .waiting(chains.get(group)[0].getQueueLength())
+                    .admitted(stats.admitted.sum())
+                    .rejected(stats.rejected.sum())
+                    .build());
+        }
+        return statistics;
+    }
+
+    /**
+     * Permits held by one admitted request
+     */
+    public static final class Permit implements AutoCloseable {
+
+        static final Permit NONE = new Permit(() -> {
+        });
+
+        private final Runnable release;
+        private boolean closed;
+
+        private Permit(Runnable release) {
+            this.release = release;
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                release.run();
+            }
+        }
+    }
+
+    private static final class Counters {
+        private final LongAdder admitted = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final AtomicInteger inFlight = new AtomicInteger();
+    }
+}
@@ -0,0 +1,115 @@
+package com.library.concurrency;
+
+import com.library.dto.RetryStats;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Re-runs a transactional mutation that lost an optimistic version check, with bounded attempts and jittered
+ * exponential backoff, and counts conflicts per operation.
+ * <p>
+ * The mutation must start its own transaction (a call into a {@code @Transactional} service from outside one):
+ * only then does a retry reload fresh state. Called inside a transaction, the mutation runs once, as-is.
+ */
+@Slf4j
+@Component
+public class OptimisticRetry {
+
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+    private final ConcurrentHashMap<String, Counters> counters = new ConcurrentHashMap<>();
+
+    public OptimisticRetry(@Value("${library.concurrency.retry.max-attempts:5}") int maxAttempts,
+                           @Value("${library.concurrency.retry.base-backoff-ms:10}") long baseBackoffMs,
+                           @Value("${library.concurrency.retry.max-backoff-ms:200}") long maxBackoffMs) {
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    /**
+     * Run the mutation, retrying it on optimistic lock conflicts; the last conflict is rethrown once
+     * the attempts are used up
+     */
+    public <T> T execute(String operation, Supplier<T> mutation) {
+        Counters stats = counters.computeIfAbsent(operation, name -> new Counters());
+        stats.calls.increment();
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return mutation.get();
+        }
+
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return mutation.get();
+            } catch (OptimisticLockingFailureException e) {
+                stats.conflicts.increment();
+                if (attempt >= maxAttempts) {
+                    stats.exhausted.increment();
+                    log.warn("{} still conflicting after {} attempts", operation, attempt);
+                    throw e;
+                }
+                stats.retries.increment();
+                backOff(attempt);
+            }
+        }
+    }
+
+    /**
+     * Run a mutation without a result, retrying it on optimistic lock conflicts
+     */
+    public void run(String operation, Runnable mutation) {
+        execute(operation, () -> {
+            mutation.run();
+            return null;
+        });
+    }
+
+    /**
+     * Conflict and retry counters of every operation run so far, by operation name
+     */
+    public List<RetryStats> getStatistics() {
+        List<RetryStats> statistics = new ArrayList<>();
+        counters.forEach((operation, stats) -> statistics.add(RetryStats.builder()
+                .operation(operation)
+                .calls(stats.calls.sum())
+                .conflicts(stats.conflicts.sum())
+                .retries(stats.retries.sum())
+                .exhausted(stats.exhausted.sum())
+                .build()));
+        statistics.sort(Comparator.comparing(RetryStats::getOperation));
+        return statistics;
+    }
+
+    private void backOff(int attempt) {
+        // Full jitter: a random wait up to the capped exponential bound, so colliding callers spread out
+        long bound = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+        if (bound <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(bound + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off a retry", e);
+        }
+    }
+
+    private static final class Counters {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder conflicts = new LongAdder();
+        private final LongAdder retries = new LongAdder();
+        private final LongAdder exhausted = new LongAdder();
+    }
+}
@@ -0,0 +1,58 @@
+package com.library.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Moves pooled id sequences past the ids already in their tables, so entities that switched from
+ * IDENTITY to a sequence never collide with existing rows. Runs once the schema has been generated.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class IdSequenceInitializer {
+
+    // Sequence name -> table whose ids it generates
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "book_seq", "books",
+            "borrowing_seq", "borrowing_transactions"
+    );
+
+    // Must match the allocationSize of the @SequenceGenerator mappings
+    private static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Declared so the schema exists before the sequences are touched
+    private final EntityManagerFactory entityManagerFactory;
+
+    @PostConstruct
+    public void alignSequences() {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        boolean sequenceTables = "MySQL".equalsIgnoreCase(database);
+
+        SEQUENCES.forEach((sequence, table) -> {
+            Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+            if (maxId == null) {
+                return;
+            }
+            // The pooled optimizer hands out (value - allocationSize, value], so stay a full block ahead
+            long next = maxId + 1 + ALLOCATION_SIZE;
+            if (sequenceTables) {
+                // MySQL has no sequences; Hibernate emulates them with a single-row table
+                jdbcTemplate.update("UPDATE " + sequence + " SET next_val = ? WHERE next_val < ?", next, next);
+            } else {
+                jdbcTemplate.execute("ALTER SEQUENCE " + sequence + " RESTART WITH " + next);
+            }
+            log.debug("Sequence {} aligned past {}.id {}", sequence, table, maxId);
+        });
+    }
+}
@@ -1,5 +1,6 @@
 package com.library.controller;
 
+import com.library.dto.CursorPage;
 import com.library.entity.Author;
 import com.library.service.AuthorService;
 import jakarta.validation.Valid;
@@ -22,8 +23,13 @@ public class AuthorController {
     private final AuthorService authorService;
 
     @GetMapping
-    public ResponseEntity<Page<Author>> getAllAuthors(
+    public ResponseEntity<?> getAllAuthors(
+            @RequestParam(required = false) String after,
             @PageableDefault(size = 20) Pageable pageable) {
+        if (after != null) {
+            CursorPage.rejectSort(pageable);
+            return ResponseEntity.ok(authorService.getAuthorsAfter(after, pageable.getPageSize()));
+        }
         return ResponseEntity.ok(authorService.getAllAuthors(pageable));
     }
 
@@ -1,69 +1,124 @@
 package com.library.controller;
 
+import com.library.concurrency.OptimisticRetry;
+import com.library.dto.BookImportResponse;
+import com.library.dto.CursorPage;
 import com.library.dto.BookRequest;
 import com.library.dto.BookResponse;
+import com.library.dto.BookSearchResponse;
 import com.library.entity.Book;
+import com.library.mapper.BookMapper;
+import com.library.service.BookImportService;
 import com.library.service.BookService;
+import com.library.service.CatalogVersion;
+import com.library.service.HoldService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.IOException;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/books")
 @RequiredArgsConstructor
 public class BookController {
     private final BookService bookService;
+    private final HoldService holdService;
+    private final BookImportService bookImportService;
+    private final BookMapper bookMapper;
+    private final CatalogVersion catalogVersion;
+    private final OptimisticRetry optimisticRetry;
 
     @PostMapping
     public ResponseEntity<BookResponse> createBook(@Valid @RequestBody BookRequest request) {
         Book book = mapToEntity(request);
         Book createdBook = bookService.createBook(book);
-        return new ResponseEntity<>(mapToResponse(createdBook), HttpStatus.CREATED);
+        return new ResponseEntity<>(bookMapper.toResponse(createdBook), HttpStatus.CREATED);
+    }
+
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BookImportResponse> importBooks(HttpServletRequest request) throws IOException {
+        BookImportService.Format format = BookImportService.Format.fromContentType(request.getContentType());
+        return ResponseEntity.ok(bookImportService.importBooks(request.getInputStream(), format));
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<BookResponse> getBookById(@PathVariable Long id) {
+    public ResponseEntity<BookResponse> getBookById(@PathVariable Long id, WebRequest webRequest) {
+        Optional<String> eTag = bookService.getBookETag(id);
+        if (eTag.isPresent() && webRequest.checkNotModified(eTag.get())) {
+            return null;
+        }
         return bookService.getBookById(id)
-                .map(book -> ResponseEntity.ok(mapToResponse(book)))
+                .map(book -> ResponseEntity.ok(bookMapper.toResponse(book)))
                 .orElse(ResponseEntity.notFound().build());
     }
 
     @GetMapping
-    public ResponseEntity<Page<BookResponse>> getAllBooks(
-            @PageableDefault(size = 20) Pageable pageable) {
+    public ResponseEntity<?> getAllBooks(
+            @RequestParam(required = false) String after,
+            @PageableDefault(size = 20) Pageable pageable,
+            WebRequest webRequest) {
+        if (webRequest.checkNotModified(catalogVersion.catalogETag())) {
+            return null;
+        }
+        if (after != null) {
+            CursorPage.rejectSort(pageable);
+            return ResponseEntity.ok(bookService.getBooksAfter(after, pageable.getPageSize())
+                    .map(bookMapper::toResponse));
+        }
         return ResponseEntity.ok(bookService.getAllBooks(pageable)
-                .map(this::mapToResponse));
+                .map(bookMapper::toResponse));
     }
 
-//    @GetMapping("/search")
-//    public ResponseEntity<Page<BookResponse>> searchBooks(
-//            @RequestParam(required = false) String title,
-//            @RequestParam(required = false) String author,
-//            @RequestParam(required = false) String category,
-//            @RequestParam(required = false) String publisher,
-//            @RequestParam(required = false) Integer year,
-//            @RequestParam(required = false) String language,
-//            @RequestParam(required = false, defaultValue = "false") boolean availableOnly,
-//            @PageableDefault(size = 20) Pageable pageable) {
-//
-//        Page<Book> books = bookService.searchBooks(
-//                title,
-//                author,
-//                category,
-//                publisher,
-//                year,
-//                language,
-//                availableOnly,
-//                pageable
-//        );
-//
-//        return ResponseEntity.ok(books.map(this::mapToResponse));
-//    }
+    @GetMapping("/search/title")
+    public ResponseEntity<Page<BookResponse>> searchBooksByTitle(
+            @RequestParam String title,
+            @PageableDefault(size = 20) Pageable pageable) {
+        return ResponseEntity.ok(bookService.searchBooksByTitle(title, pageable)
+                .map(bookMapper::toResponse));
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<BookSearchResponse> searchBooks(
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) String category,
+            @RequestParam(required = false) String publisher,
+            @RequestParam(required = false) Integer year,
+            @RequestParam(required = false) String language,
+            @RequestParam(required = false, defaultValue = "false") boolean availableOnly,
+            @PageableDefault(size = 20) Pageable pageable) {
+
+        BookService.BookSearchResult result = bookService.searchBooks(
+                title,
+                author,
+                category,
+                publisher,
+                year,
+                language,
+                availableOnly,
+                pageable
+        );
+
+        Page<Book> books = result.getBooks();
+        return ResponseEntity.ok(BookSearchResponse.builder()
+                .content(books.map(bookMapper::toResponse).getContent())
+                .page(books.getNumber())
+                .size(books.getSize())
+                .totalElements(books.getTotalElements())
+                .totalPages(books.getTotalPages())
+                .facets(result.getFacets())
+                .build());
+    }
 
     @PutMapping("/{id}")
     public ResponseEntity<BookResponse> updateBook(
@@ -71,13 +126,13 @@ public class BookController {
             @Valid @RequestBody BookRequest request) {
         Book book = mapToEntity(request);
         book.setId(id);
-        Book updatedBook = bookService.updateBook(id, book);
-        return ResponseEntity.ok(mapToResponse(updatedBook));
+        Book updatedBook = optimisticRetry.execute("updateBook", () -> bookService.updateBook(id, book));
+        return ResponseEntity.ok(bookMapper.toResponse(updatedBook));
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteBook(@PathVariable Long id) {
-        bookService.deleteBook(id);
+        optimisticRetry.run("deleteBook", () -> bookService.deleteBook(id));
         return ResponseEntity.noContent().build();
     }
 
@@ -85,8 +140,8 @@ public class BookController {
     public ResponseEntity<BookResponse> addCopies(
             @PathVariable Long id,
             @PathVariable int copies) {
-        Book updatedBook = bookService.addCopies(id, copies);
-        return ResponseEntity.ok(mapToResponse(updatedBook));
+        Book updatedBook = holdService.addCopies(id, copies);
+        return ResponseEntity.ok(bookMapper.toResponse(updatedBook));
     }
 
     @PostMapping("/{id}/remove-copies/{copies}")
@@ -94,14 +149,14 @@ public class BookController {
             @PathVariable Long id,
             @PathVariable int copies) {
         Book updatedBook = bookService.removeCopies(id, copies);
-        return ResponseEntity.ok(mapToResponse(updatedBook));
+        return ResponseEntity.ok(bookMapper.toResponse(updatedBook));
     }
 
     @GetMapping("/available")
     public ResponseEntity<Page<BookResponse>> getAvailableBooks(
             @PageableDefault(size = 20) Pageable pageable) {
         return ResponseEntity.ok(bookService.getAvailableBooks(pageable)
-                .map(this::mapToResponse));
+                .map(bookMapper::toResponse));
     }
 
 //    @GetMapping("/by-category/{category}")
@@ -109,7 +164,7 @@ public class BookController {
 //            @PathVariable String category,
 //            @PageableDefault(size = 20) Pageable pageable) {
 //        return ResponseEntity.ok(bookService.getBooksByCategory(category, pageable)
-//                .map(this::mapToResponse));
+//                .map(bookMapper::toResponse));
 //    }
 //
 //    @GetMapping("/by-author/{author}")
@@ -117,7 +172,7 @@ public class BookController {
 //            @PathVariable String author,
 //            @PageableDefault(size = 20) Pageable pageable) {
 //        return ResponseEntity.ok(bookService.searchBooksByAuthor(author, pageable)
-//                .map(this::mapToResponse));
+//                .map(bookMapper::toResponse));
 //    }
 
     // Helper methods to map between entity and DTO
@@ -137,22 +192,4 @@ public class BookController {
         // Note: You'll need to set authors, publisher, and categories using their services
         return book;
     }
-
-    private BookResponse mapToResponse(Book book) {
-        return BookResponse.builder()
-                .id(book.getId())
-                .title(book.getTitle())
-                .isbn(book.getIsbn())
-                .edition(book.getEdition())
-                .publicationYear(book.getPublicationYear())
-                .language(book.getLanguage())
-                .summary(book.getSummary())
-                .coverImageUrl(book.getCoverImageUrl())
-                .totalCopies(book.getTotalCopies())
-                .availableCopies(book.getAvailableCopies())
-                // Note: You'll need to map authors, publisher, and categories
-                .createdAt(book.getCreatedAt())
-                .updatedAt(book.getUpdatedAt())
-                .build();
-    }
 }
@@ -1,10 +1,18 @@
 package com.library.controller;
 
+import com.library.concurrency.OptimisticRetry;
+import com.library.dto.BatchBorrowingRequest;
+import com.library.dto.BatchBorrowingResponse;
+import com.library.dto.BatchReturnRequest;
+import com.library.dto.BatchReturnResponse;
 import com.library.dto.BorrowingRequest;
 import com.library.dto.BorrowingResponse;
+import com.library.dto.CursorPage;
 import com.library.dto.ReturnBookRequest;
 import com.library.entity.BorrowingTransaction;
+import com.library.idempotency.IdempotencyStore;
 import com.library.mapper.BorrowingMapper;
+import com.library.service.BatchReturnService;
 import com.library.service.BorrowingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -25,34 +33,90 @@ public class BorrowingController {
 
     private final BorrowingService borrowingService;
     private final BorrowingMapper borrowingMapper;
+    private final BatchReturnService batchReturnService;
+    private final IdempotencyStore idempotencyStore;
+    private final OptimisticRetry optimisticRetry;
 
     @PostMapping
-    public ResponseEntity<BorrowingResponse> borrowBook(@Valid @RequestBody BorrowingRequest request) {
-        BorrowingTransaction transaction = borrowingService.borrowBook(
-                request.getBookId(),
-                request.getMemberId(),
-                request.getIssuedByUserId()
-        );
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(borrowingMapper.toResponse(transaction));
+    public ResponseEntity<BorrowingResponse> borrowBook(
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody BorrowingRequest request) {
+
+        return idempotencyStore.execute("borrow", idempotencyKey, request, () -> {
+            BorrowingTransaction transaction = optimisticRetry.execute("borrowBook", () -> borrowingService.borrowBook(
+                    request.getBookId(),
+                    request.getMemberId(),
+                    request.getIssuedByUserId()
+            ));
+            return ResponseEntity.status(HttpStatus.CREATED)
+                    .body(borrowingMapper.toResponse(transaction));
+        });
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<BatchBorrowingResponse> borrowBooks(@Valid @RequestBody BatchBorrowingRequest request) {
+        List<BorrowingService.BatchBorrowingOutcome> outcomes = optimisticRetry.execute("borrowBooks", () ->
+                borrowingService.borrowBooks(
+                        request.getBookIds(),
+                        request.getMemberId(),
+                        request.getIssuedByUserId()
+                ));
+
+        List<BatchBorrowingResponse.BookResult> results = outcomes.stream()
+                .map(outcome -> new BatchBorrowingResponse.BookResult(
+                        outcome.getBookId(),
+                        outcome.isBorrowed(),
+                        borrowingMapper.toResponse(outcome.getTransaction()),
+                        outcome.getMessage()))
+                .collect(Collectors.toList());
+        int borrowed = (int) outcomes.stream().filter(BorrowingService.BatchBorrowingOutcome::isBorrowed).count();
+
+        return ResponseEntity.status(borrowed > 0 ? HttpStatus.CREATED : HttpStatus.OK)
+                .body(BatchBorrowingResponse.builder()
+                        .memberId(request.getMemberId())
+                        .borrowed(borrowed)
+                        .rejected(results.size() - borrowed)
+                        .results(results)
+                        .build());
     }
 
     @PostMapping("/{id}/return")
     public ResponseEntity<BorrowingResponse> returnBook(
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
             @PathVariable Long id,
             @Valid @RequestBody ReturnBookRequest request) {
 
-        BorrowingTransaction transaction = borrowingService.returnBook(
-                id,
+        return idempotencyStore.execute("return:" + id, idempotencyKey, request, () -> {
+            BorrowingTransaction transaction = optimisticRetry.execute("returnBook", () -> borrowingService.returnBook(
+                    id,
+                    request.getReturnedToUserId()
+            ));
+            return ResponseEntity.ok(borrowingMapper.toResponse(transaction));
+        });
+    }
+
+    @PostMapping("/batch-return")
+    public ResponseEntity<BatchReturnResponse> returnBooks(@Valid @RequestBody BatchReturnRequest request) {
+        return ResponseEntity.ok(batchReturnService.returnBooks(
+                request.getTransactionIds(),
+                request.getBookIds(),
                 request.getReturnedToUserId()
-        );
-        return ResponseEntity.ok(borrowingMapper.toResponse(transaction));
+        ));
     }
 
     @GetMapping
-    public ResponseEntity<Page<BorrowingResponse>> getAllBorrowings(
+    public ResponseEntity<?> getAllBorrowings(
+            @RequestParam(required = false) String after,
             @PageableDefault(size = 20) Pageable pageable) {
 
+        if (after != null) {
+            CursorPage.rejectSort(pageable);
+            return ResponseEntity.ok(
+                    borrowingService.getTransactionsAfter(after, pageable.getPageSize())
+                            .map(borrowingMapper::toResponse)
+            );
+        }
+
         return ResponseEntity.ok(
                 borrowingService.getAllTransactions(pageable)
                         .map(borrowingMapper::toResponse)
@@ -90,11 +154,14 @@ public class BorrowingController {
     }
 
     @GetMapping("/overdue")
-    public ResponseEntity<List<BorrowingResponse>> getOverdueBorrowings() {
+    public ResponseEntity<CursorPage<BorrowingResponse>> getOverdueBorrowings(
+            @RequestParam(required = false) String after,
+            @PageableDefault(size = 20) Pageable pageable) {
+        CursorPage.rejectSort(pageable);
+
         return ResponseEntity.ok(
-                borrowingService.getOverdueTransactions().stream()
+                borrowingService.getOverdueTransactionsAfter(after, pageable.getPageSize())
                         .map(borrowingMapper::toResponse)
-                        .collect(Collectors.toList())
         );
     }
 
@@ -114,7 +181,8 @@ public class BorrowingController {
             @PathVariable Long id,
             @RequestParam int additionalDays) {
 
-        BorrowingTransaction transaction = borrowingService.extendDueDate(id, additionalDays);
+        BorrowingTransaction transaction = optimisticRetry.execute("extendDueDate",
+                () -> borrowingService.extendDueDate(id, additionalDays));
         return ResponseEntity.ok(borrowingMapper.toResponse(transaction));
     }
 
@@ -123,7 +191,8 @@ public class BorrowingController {
             @PathVariable Long id,
             @RequestParam double replacementCost) {
 
-        BorrowingTransaction transaction = borrowingService.markAsLost(id, replacementCost);
+        BorrowingTransaction transaction = optimisticRetry.execute("markAsLost",
+                () -> borrowingService.markAsLost(id, replacementCost));
         return ResponseEntity.ok(borrowingMapper.toResponse(transaction));
     }
 
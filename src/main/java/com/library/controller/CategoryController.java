@@ -1,10 +1,12 @@
 package com.library.controller;
 
 import com.library.entity.Category;
+import com.library.service.CatalogVersion;
 import com.library.service.CategoryService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -14,6 +16,7 @@ import java.util.List;
 public class CategoryController {
 
     private final CategoryService categoryService;
+    private final CatalogVersion catalogVersion;
 
     // Get all categories
     @GetMapping
@@ -81,7 +84,11 @@ public class CategoryController {
 
     // Get category tree
     @GetMapping("/tree")
-    public List<CategoryService.CategoryTree> getCategoryTree() {
+    public List<CategoryService.CategoryTree> getCategoryTree(WebRequest webRequest) {
+        // Unchanged since the client's copy: answer 304 without touching the database
+        if (webRequest.checkNotModified(catalogVersion.referencesETag())) {
+            return null;
+        }
         return categoryService.getCategoryTree();
     }
 
@@ -0,0 +1,58 @@
+package com.library.controller;
+
+import com.library.eventlog.BorrowingEvent;
+import com.library.eventlog.CirculationState;
+import com.library.eventlog.EventLog;
+import com.library.exception.ResourceNotFoundException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/event-log")
+@RequiredArgsConstructor
+public class EventLogController {
+
+    private final EventLog eventLog;
+
+    @GetMapping("/books/{bookId}")
+    public ResponseEntity<CirculationState.BookCirculation> getBookCirculation(@PathVariable Long bookId) {
+        CirculationState.BookCirculation book = eventLog.book(bookId);
+        if (book == null) {
+            throw new ResourceNotFoundException("No circulation events for book id: " + bookId);
+        }
+        return ResponseEntity.ok(book);
+    }
+
+    @GetMapping("/members/{memberId}")
+    public ResponseEntity<CirculationState.MemberCirculation> getMemberCirculation(@PathVariable Long memberId) {
+        CirculationState.MemberCirculation member = eventLog.member(memberId);
+        if (member == null) {
+            throw new ResourceNotFoundException("No circulation events for member id: " + memberId);
+        }
+        return ResponseEntity.ok(member);
+    }
+
+    @GetMapping("/books/{bookId}/events")
+    public ResponseEntity<List<BorrowingEvent>> getBookHistory(@PathVariable Long bookId) {
+        return ResponseEntity.ok(eventLog.bookHistory(bookId));
+    }
+
+    @GetMapping("/members/{memberId}/events")
+    public ResponseEntity<List<BorrowingEvent>> getMemberHistory(@PathVariable Long memberId) {
+        return ResponseEntity.ok(eventLog.memberHistory(memberId));
+    }
+
+    @PostMapping("/replay")
+    public ResponseEntity<EventLog.ReplayResult> replay(@RequestParam(defaultValue = "true") boolean fromSnapshot) {
+        return ResponseEntity.ok(eventLog.rebuild(fromSnapshot));
+    }
+
+    @PostMapping("/snapshots")
+    public ResponseEntity<Void> snapshot() {
+        eventLog.snapshot();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,60 @@
+package com.library.controller;
+
+import com.library.dto.HoldPositionResponse;
+import com.library.dto.HoldQueueResponse;
+import com.library.dto.HoldRequest;
+import com.library.dto.HoldResponse;
+import com.library.entity.Hold;
+import com.library.exception.ResourceNotFoundException;
+import com.library.mapper.HoldMapper;
+import com.library.service.HoldService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/holds")
+@RequiredArgsConstructor
+public class HoldController {
+
+    private final HoldService holdService;
+    private final HoldMapper holdMapper;
+
+    @PostMapping
+    public ResponseEntity<HoldResponse> placeHold(@Valid @RequestBody HoldRequest request) {
+        Hold hold = holdService.placeHold(request.getBookId(), request.getMemberId());
+        return ResponseEntity.status(HttpStatus.CREATED).body(holdMapper.toResponse(hold));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancelHold(@PathVariable Long id) {
+        holdService.cancelHold(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/member/{memberId}")
+    public ResponseEntity<List<HoldResponse>> getHoldsByMember(@PathVariable Long memberId) {
+        return ResponseEntity.ok(
+                holdService.getHoldsByMember(memberId).stream()
+                        .map(holdMapper::toResponse)
+                        .collect(Collectors.toList())
+        );
+    }
+
+    @GetMapping("/book/{bookId}")
+    public ResponseEntity<HoldQueueResponse> getQueue(@PathVariable Long bookId) {
+        return ResponseEntity.ok(holdMapper.toQueueResponse(bookId, holdService.getQueue(bookId)));
+    }
+
+    @GetMapping("/{id}/position")
+    public ResponseEntity<HoldPositionResponse> getQueuePosition(@PathVariable Long id) {
+        return ResponseEntity.ok(holdService.getQueuePosition(id)
+                .map(position -> holdMapper.toPositionResponse(id, position))
+                .orElseThrow(() -> new ResourceNotFoundException("Hold is not waiting in a queue: " + id)));
+    }
+}
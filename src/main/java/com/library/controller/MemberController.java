@@ -1,5 +1,6 @@
 package com.library.controller;
 
+import com.library.dto.CursorPage;
 import com.library.dto.MemberRequest;
 import com.library.dto.MemberResponse;
 import com.library.entity.Member;
@@ -46,8 +47,14 @@ public class MemberController {
     }
 
     @GetMapping
-    public ResponseEntity<Page<MemberResponse>> getAllMembers(
+    public ResponseEntity<?> getAllMembers(
+            @RequestParam(required = false) String after,
             @PageableDefault(size = 20) Pageable pageable) {
+        if (after != null) {
+            CursorPage.rejectSort(pageable);
+            return ResponseEntity.ok(memberService.getMembersAfter(after, pageable.getPageSize())
+                    .map(memberMapper::toResponse));
+        }
         Page<Member> members = memberService.getAllMembers(pageable);
         return ResponseEntity.ok(members.map(memberMapper::toResponse));
     }
@@ -0,0 +1,40 @@
+package com.library.controller;
+
+import com.library.admission.AdmissionGate;
+import com.library.concurrency.OptimisticRetry;
+import com.library.dto.AdmissionStats;
+import com.library.dto.CacheRegionStats;
+import com.library.dto.RetryStats;
+import com.library.service.CacheMetricsService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/metrics")
+@RequiredArgsConstructor
+public class MetricsController {
+
+    private final CacheMetricsService cacheMetricsService;
+    private final OptimisticRetry optimisticRetry;
+    private final AdmissionGate admissionGate;
+
+    @GetMapping("/caches")
+    public ResponseEntity<List<CacheRegionStats>> getCacheStatistics() {
+        return ResponseEntity.ok(cacheMetricsService.getRegionStatistics());
+    }
+
+    @GetMapping("/optimistic-retries")
+    public ResponseEntity<List<RetryStats>> getOptimisticRetryStatistics() {
+        return ResponseEntity.ok(optimisticRetry.getStatistics());
+    }
+
+    @GetMapping("/admission")
+    public ResponseEntity<List<AdmissionStats>> getAdmissionStatistics() {
+        return ResponseEntity.ok(admissionGate.getStatistics());
+    }
+}
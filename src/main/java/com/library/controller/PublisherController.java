@@ -1,5 +1,6 @@
 package com.library.controller;
 
+import com.library.dto.CursorPage;
 import com.library.entity.Publisher;
 import com.library.service.PublisherService;
 import lombok.RequiredArgsConstructor;
@@ -17,10 +18,16 @@ public class PublisherController {
 
     private final PublisherService publisherService;
 
-    // Get all publishers with pagination
+    // Get all publishers with pagination (or keyset pagination when ?after= is given)
     @GetMapping
-    public Page<Publisher> getAllPublishers(Pageable pageable) {
-        return publisherService.getAllPublishers(pageable);
+    public ResponseEntity<?> getAllPublishers(
+            @RequestParam(required = false) String after,
+            Pageable pageable) {
+        if (after != null) {
+            CursorPage.rejectSort(pageable);
+            return ResponseEntity.ok(publisherService.getPublishersAfter(after, pageable.getPageSize()));
+        }
+        return ResponseEntity.ok(publisherService.getAllPublishers(pageable));
     }
 
     // Get publisher by ID
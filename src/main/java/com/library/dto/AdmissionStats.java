@@ -0,0 +1,20 @@
+package com.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdmissionStats {
+
+    private String group;
+    private int permits;
+    private int inFlight;
+    private int waiting;
+    private long admitted;
+    private long rejected;
+}
@@ -0,0 +1,19 @@
+package com.library.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchBorrowingRequest {
+    @NotEmpty(message = "At least one book ID is required")
+    private List<@NotNull Long> bookIds;
+
+    @NotNull(message = "Member ID is required")
+    private Long memberId;
+
+    @NotNull(message = "Issued by user ID is required")
+    private Long issuedByUserId;
+}
@@ -0,0 +1,30 @@
+package com.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchBorrowingResponse {
+
+    private Long memberId;
+    private int borrowed;
+    private int rejected;
+    private List<BookResult> results;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BookResult {
+        private Long bookId;
+        private boolean borrowed;
+        private BorrowingResponse transaction;
+        private String message;
+    }
+}
@@ -0,0 +1,23 @@
+package com.library.dto;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchReturnRequest {
+    private List<@NotNull Long> transactionIds;
+
+    // Scanned book ids; each one closes the oldest open loan of that book
+    private List<@NotNull Long> bookIds;
+
+    @NotNull(message = "Returned to user ID is required")
+    private Long returnedToUserId;
+
+    @AssertTrue(message = "At least one transaction ID or book ID is required")
+    public boolean isAnyItem() {
+        return (transactionIds != null && !transactionIds.isEmpty()) || (bookIds != null && !bookIds.isEmpty());
+    }
+}
@@ -0,0 +1,32 @@
+package com.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchReturnResponse {
+
+    private int requested;
+    private int returned;
+    private int overdue;
+    private int failed;
+    private double totalFines;
+    private long durationMs;
+    private List<ItemFailure> failures;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemFailure {
+        private Long transactionId;
+        private Long bookId;
+        private String message;
+    }
+}
@@ -0,0 +1,32 @@
+package com.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookImportResponse {
+
+    private long rowsRead;
+    private long imported;
+    private long failed;
+    private long durationMs;
+    private double rowsPerSecond;
+    private List<RowError> errors;
+    private boolean errorsTruncated;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String isbn;
+        private String message;
+    }
+}
@@ -0,0 +1,24 @@
+package com.library.dto;
+
+import com.library.search.FacetCount;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSearchResponse {
+
+    private List<BookResponse> content;
+    private int page;
+    private int size;
+    private long totalElements;
+    private int totalPages;
+    private Map<String, List<FacetCount>> facets;
+}
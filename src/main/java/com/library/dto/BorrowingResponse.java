@@ -23,6 +23,7 @@ public class BorrowingResponse {
     private LocalDate dueDate;
     private LocalDateTime returnDate;
     private Double fineAmount;
+    private Double accruedFine;
     private BorrowingTransaction.TransactionStatus status;
     private String notes;
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CacheRegionStats {
+
+    private String region;
+    private long hits;
+    private long misses;
+    private double hitPercentage;
+    private long puts;
+    private long evictions;
+    private long removals;
+}
@@ -0,0 +1,116 @@
+package com.library.dto;
+
+import com.library.exception.InvalidCursorException;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Pageable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One slice of a keyset-paginated listing. Pass {@code nextCursor} back as {@code ?after=}
+ * to get the following slice; no total count is computed.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+
+    private static final String CURSOR_PREFIX = "id:";
+    private static final String KEY_CURSOR_PREFIX = "key:";
+
+    private List<T> content;
+    private int size;
+    private String nextCursor;
+    private boolean hasNext;
+
+    /**
+     * Build a slice from rows fetched with a limit of {@code size + 1}; the extra row only signals that more exist
+     */
+    public static <T> CursorPage<T> of(List<T> rows, int size, Function<T, Long> idOf) {
+        return slice(rows, size, row -> encode(idOf.apply(row)));
+    }
+
+    /**
+     * Same as {@link #of} for listings ordered by a composite key (e.g. a date then the id) rendered as a string
+     */
+    public static <T> CursorPage<T> ofKey(List<T> rows, int size, Function<T, String> keyOf) {
+        return slice(rows, size, row -> encodeKey(keyOf.apply(row)));
+    }
+
+    private static <T> CursorPage<T> slice(List<T> rows, int size, Function<T, String> cursorOf) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext ? cursorOf.apply(content.get(content.size() - 1)) : null;
+        return new CursorPage<>(content, size, nextCursor, hasNext);
+    }
+
+    /**
+     * Reject a {@code sort} sent together with a cursor: keyset pages always follow the listing's own order
+     */
+    public static void rejectSort(Pageable pageable) {
+        if (pageable.getSort().isSorted()) {
+            throw new InvalidCursorException("sort cannot be combined with after; cursor pages follow a fixed order");
+        }
+    }
+
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPage<>(content.stream().<R>map(mapper).toList(), size, nextCursor, hasNext);
+    }
+
+    /**
+     * Opaque cursor for the position right after the given id
+     */
+    public static String encode(Long id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((CURSOR_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Opaque cursor for the position right after the given composite key
+     */
+    public static String encodeKey(String key) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((KEY_CURSOR_PREFIX + key).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Composite key to seek after; null for an empty cursor, which starts from the beginning
+     */
+    public static String decodeKey(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(KEY_CURSOR_PREFIX)) {
+                throw new InvalidCursorException("Invalid cursor: " + cursor);
+            }
+            return value.substring(KEY_CURSOR_PREFIX.length());
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+
+    /**
+     * Id to seek after; an empty cursor starts from the beginning
+     */
+    public static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (!value.startsWith(CURSOR_PREFIX)) {
+                throw new InvalidCursorException("Invalid cursor: " + cursor);
+            }
+            return Long.parseLong(value.substring(CURSOR_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidCursorException("Invalid cursor: " + cursor);
+        }
+    }
+}
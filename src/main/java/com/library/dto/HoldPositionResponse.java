@@ -0,0 +1,17 @@
+package com.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldPositionResponse {
+    private Long holdId;
+    private Long bookId;
+    private int position;
+    private int queueLength;
+}
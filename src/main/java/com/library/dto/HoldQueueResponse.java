@@ -0,0 +1,28 @@
+package com.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldQueueResponse {
+
+    private Long bookId;
+    private int queueLength;
+    private List<QueueEntry> entries;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class QueueEntry {
+        private int position;
+        private Long holdId;
+        private Long memberId;
+    }
+}
@@ -0,0 +1,23 @@
+package com.library.dto;
+
+import com.library.entity.Hold;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldResponse {
+    private Long id;
+    private Long bookId;
+    private Long memberId;
+    private Hold.HoldStatus status;
+    private LocalDateTime placedAt;
+    private LocalDateTime readyAt;
+    private LocalDateTime closedAt;
+}
@@ -0,0 +1,19 @@
+package com.library.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RetryStats {
+
+    private String operation;
+    private long calls;
+    private long conflicts;
+    private long retries;
+    private long exhausted;
+}
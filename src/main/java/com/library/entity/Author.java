@@ -3,7 +3,11 @@ package com.library.entity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.io.Serializable;
 import java.time.LocalDate;
@@ -11,6 +15,8 @@ import java.util.Set;
 
 @Entity
 @Table(name = "authors")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "authors")
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -33,6 +39,8 @@ public class Author implements Serializable {
     private LocalDate deathDate;
     private String nationality;
 
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @ManyToMany(mappedBy = "authors")
     private Set<Book> books;
 
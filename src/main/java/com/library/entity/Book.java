@@ -4,9 +4,12 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.io.Serializable;
 import java.time.LocalDateTime;
@@ -14,12 +17,15 @@ import java.util.Set;
 
 @Entity
 @Table(name = "books")
+@EntityListeners(AuditingEntityListener.class)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class Book implements Serializable {
+    // Pooled sequence so Hibernate can batch inserts (ids are handed out 50 at a time)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "book_seq")
+    @SequenceGenerator(name = "book_seq", sequenceName = "book_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -41,6 +47,8 @@ public class Book implements Serializable {
     private Integer totalCopies = 1;
     private Integer availableCopies = 1;
 
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @ManyToMany
     @JoinTable(
             name = "book_authors",
@@ -49,10 +57,14 @@ public class Book implements Serializable {
     )
     private Set<Author> authors;
 
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "publisher_id")
     private Publisher publisher;
 
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @ManyToMany
     @JoinTable(
             name = "book_categories",
@@ -61,6 +73,8 @@ public class Book implements Serializable {
     )
     private Set<Category> categories;
 
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @OneToMany(mappedBy = "book", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Set<BorrowingTransaction> borrowingTransactions;
 
@@ -70,6 +84,12 @@ public class Book implements Serializable {
     @LastModifiedDate
     private LocalDateTime updatedAt;
 
+    // Optimistic lock; the atomic copy updates bump it too, so a stale entity write is detected instead of
+    // overwriting their counts
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     public boolean isAvailable() {
         return availableCopies > 0;
     }
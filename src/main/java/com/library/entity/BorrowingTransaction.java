@@ -3,7 +3,9 @@ package com.library.entity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.springframework.data.annotation.CreatedDate;
 
 import java.io.Serializable;
@@ -11,28 +13,40 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "borrowing_transactions")
+// Serves the overdue sweep and the overdue listing: open loans have no return date, in due date order
+@Table(name = "borrowing_transactions",
+        indexes = @Index(name = "idx_borrowing_status_return_due", columnList = "status, return_date, due_date"))
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class BorrowingTransaction implements Serializable {
 
+    // Pooled sequence so batch checkouts insert all their transactions in one JDBC batch
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "borrowing_seq")
+    @SequenceGenerator(name = "borrowing_seq", sequenceName = "borrowing_seq", allocationSize = 50)
     private Long id;
 
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "book_id", nullable = false)
     private Book book;
 
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "member_id", nullable = false)
     private Member member;
 
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "issued_by_user_id")
     private SystemUser issuedBy;
 
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "returned_to_user_id")
     private SystemUser returnedTo;
@@ -40,15 +54,27 @@ public class BorrowingTransaction implements Serializable {
     @CreatedDate
     private LocalDateTime borrowDate;
 
+    @Column(name = "due_date")
     private LocalDate dueDate;
+
+    @Column(name = "return_date")
     private LocalDateTime returnDate;
 
     @Enumerated(EnumType.STRING)
     private TransactionStatus status = TransactionStatus.BORROWED;
 
     private Double fineAmount = 0.0;
+
+    // Fine built up so far by a loan still out past its due date, kept current by the nightly accrual;
+    // cleared when the loan closes (returned or lost) and the fine amount is settled
+    private Double accruedFine = 0.0;
     private String notes;
 
+    // Optimistic lock, also bumped by the overdue sweep and the fine accrual
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     public BorrowingTransaction(Book book, Member member, SystemUser issuedBy) {
         this.book = book;
         this.member = member;
@@ -57,8 +83,15 @@ public class BorrowingTransaction implements Serializable {
         this.dueDate = LocalDate.now().plusWeeks(2); // 2 weeks borrowing period
     }
 
+    /**
+     * Still out with the member: borrowed, or overdue and not yet returned
+     */
+    public boolean isOpen() {
+        return returnDate == null && (status == TransactionStatus.BORROWED || status == TransactionStatus.OVERDUE);
+    }
+
     public boolean isOverdue() {
-        return status == TransactionStatus.BORROWED && LocalDate.now().isAfter(dueDate);
+        return isOpen() && LocalDate.now().isAfter(dueDate);
     }
 
     public enum TransactionStatus {
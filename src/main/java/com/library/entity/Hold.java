@@ -0,0 +1,65 @@
+package com.library.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.ToString;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "holds", indexes = {
+        @Index(name = "idx_hold_status", columnList = "status"),
+        @Index(name = "idx_hold_member", columnList = "member_id")
+})
+@Data
+@NoArgsConstructor
+public class Hold implements Serializable {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "book_id", nullable = false)
+    private Book book;
+
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "member_id", nullable = false)
+    private Member member;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private HoldStatus status = HoldStatus.WAITING;
+
+    private LocalDateTime placedAt;
+
+    // When a returned copy was set aside for this hold
+    private LocalDateTime readyAt;
+
+    private LocalDateTime closedAt;
+
+    // "bookId:memberId" while the hold is live, null once closed; unique, so a member has one live hold per book
+    @Column(name = "live_key", unique = true, length = 41)
+    private String liveKey;
+
+    public Hold(Book book, Member member) {
+        this.book = book;
+        this.member = member;
+        this.placedAt = LocalDateTime.now();
+        this.liveKey = liveKey(book.getId(), member.getId());
+    }
+
+    public static String liveKey(Long bookId, Long memberId) {
+        return bookId + ":" + memberId;
+    }
+
+    public enum HoldStatus {
+        WAITING, READY, FULFILLED, CANCELLED, EXPIRED
+    }
+}
@@ -6,7 +6,9 @@ import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 
@@ -26,6 +28,7 @@ public class Member implements Serializable {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    // Assigned by MemberService from the MembershipIdAllocator unless given
     @NotBlank
     @Column(unique = true, updatable = false)
     private String membershipId;
@@ -50,6 +53,29 @@ public class Member implements Serializable {
     @Enumerated(EnumType.STRING)
     private MembershipStatus status = MembershipStatus.ACTIVE;
 
+    // Open loans (borrowed or overdue, not yet returned), kept in step by the borrowing transactions;
+    // only ever written by atomic updates
+    @Column(nullable = false, updatable = false)
+    private int activeLoanCount;
+
+    // Borrowing history totals, maintained the same way as activeLoanCount
+    @Column(nullable = false, updatable = false)
+    private long totalLoans;
+
+    @Column(nullable = false, updatable = false)
+    private long returnedLoans;
+
+    @Column(nullable = false, updatable = false)
+    private long overdueLoans;
+
+    @Column(nullable = false, updatable = false)
+    private long lostLoans;
+
+    @Column(nullable = false, updatable = false)
+    private double totalFines;
+
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @OneToMany(mappedBy = "member", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Set<BorrowingTransaction> borrowingTransactions;
 
@@ -59,13 +85,6 @@ public class Member implements Serializable {
     @LastModifiedDate
     private LocalDateTime updatedAt;
 
-    @PrePersist
-    protected void onCreate() {
-        if (this.membershipId == null) {
-            this.membershipId = "M" + String.format("%05d", (int)(Math.random() * 100000));
-        }
-    }
-
     public String getFullName() {
         return firstName + " " + lastName;
     }
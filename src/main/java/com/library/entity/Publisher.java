@@ -3,13 +3,19 @@ package com.library.entity;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.io.Serializable;
 import java.util.Set;
 
 @Entity
 @Table(name = "publishers")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "publishers")
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -26,6 +32,8 @@ public class Publisher implements Serializable {
     private String website;
     private String contactEmail;
 
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
     @OneToMany(mappedBy = "publisher", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Set<Book> books;
 }
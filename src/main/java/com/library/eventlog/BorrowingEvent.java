@@ -0,0 +1,37 @@
+package com.library.eventlog;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * One circulation event as read back from the event log. {@code value} depends on the type: the due date
+ * (as an epoch day) for borrow and extend events, the fine or replacement cost in cents for return and lost events.
+ */
+public record BorrowingEvent(long sequence, Type type, Instant at, long transactionId, long bookId, long memberId,
+                             int value) {
+
+    public LocalDate dueDate() {
+        return type == Type.BORROWED || type == Type.EXTENDED ? LocalDate.ofEpochDay(value) : null;
+    }
+
+    public double amount() {
+        return type == Type.RETURNED || type == Type.LOST ? value / 100.0 : 0.0;
+    }
+
+    public enum Type {
+        BORROWED(1), RETURNED(2), EXTENDED(3), LOST(4);
+
+        private static final Type[] BY_CODE = {null, BORROWED, RETURNED, EXTENDED, LOST};
+
+        // Stored on disk; 0 marks the unwritten tail of a segment
+        final int code;
+
+        Type(int code) {
+            this.code = code;
+        }
+
+        static Type of(int code) {
+            return BY_CODE[code];
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.library.eventlog;
+
+import lombok.Data;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-book and per-member circulation counters folded from the event log. Counts cover the events in the log,
+ * i.e. the history since the log was started. Not thread-safe: the {@link EventLog} guards the live instance.
+ */
+public class CirculationState {
+
+    private final Map<Long, BookCirculation> books;
+    private final Map<Long, MemberCirculation> members;
+
+    // Events folded in so far, which is also the sequence number of the next event to apply
+    private long sequence;
+
+    public CirculationState() {
+        this(0, new HashMap<>(), new HashMap<>());
+    }
+
+    private CirculationState(long sequence, Map<Long, BookCirculation> books, Map<Long, MemberCirculation> members) {
+        this.sequence = sequence;
+        this.books = books;
+        this.members = members;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public int getBookCount() {
+        return books.size();
+    }
+
+    public int getMemberCount() {
+        return members.size();
+    }
+
+    public BookCirculation book(long bookId) {
+        BookCirculation book = books.get(bookId);
+        return book != null ? book.copy() : null;
+    }
+
+    public MemberCirculation member(long memberId) {
+        MemberCirculation member = members.get(memberId);
+        return member != null ? member.copy() : null;
+    }
+
+    /**
+     * Fold one event into the counters
+     */
+    void apply(int type, long bookId, long memberId, int value) {
+        BookCirculation book = books.computeIfAbsent(bookId, BookCirculation::new);
+        MemberCirculation member = members.computeIfAbsent(memberId, MemberCirculation::new);
+        // Codes of BorrowingEvent.Type
+        switch (type) {
+            case 1 -> {
+                book.loans++;
+                book.onLoan++;
+                member.loans++;
+                member.onLoan++;
+            }
+            case 2 -> {
+                book.returns++;
+                book.onLoan--;
+                member.returns++;
+                member.onLoan--;
+                member.fineCents += value;
+            }
+            case 3 -> {
+                book.extensions++;
+                member.extensions++;
+            }
+            case 4 -> {
+                book.lost++;
+                book.onLoan--;
+                member.lost++;
+                member.onLoan--;
+                member.fineCents += value;
+            }
+            default -> throw new IllegalStateException("Unknown event type " + type);
+        }
+        sequence++;
+    }
+
+    /**
+     * Deep copy, for snapshotting outside the log's lock
+     */
+    CirculationState copy() {
+        Map<Long, BookCirculation> bookCopies = new HashMap<>(books.size() * 4 / 3 + 1);
+        books.forEach((id, book) -> bookCopies.put(id, book.copy()));
+        Map<Long, MemberCirculation> memberCopies = new HashMap<>(members.size() * 4 / 3 + 1);
+        members.forEach((id, member) -> memberCopies.put(id, member.copy()));
+        return new CirculationState(sequence, bookCopies, memberCopies);
+    }
+
+    void writeTo(DataOutputStream out) throws IOException {
+        out.writeLong(sequence);
+        out.writeInt(books.size());
+        for (BookCirculation book : books.values()) {
+            out.writeLong(book.bookId);
+            out.writeLong(book.loans);
+            out.writeLong(book.returns);
+            out.writeLong(book.extensions);
+            out.writeLong(book.lost);
+            out.writeLong(book.onLoan);
+        }
+        out.writeInt(members.size());
+        for (MemberCirculation member : members.values()) {
+            out.writeLong(member.memberId);
+            out.writeLong(member.loans);
+            out.writeLong(member.returns);
+            out.writeLong(member.extensions);
+            out.writeLong(member.lost);
+            out.writeLong(member.onLoan);
+            out.writeLong(member.fineCents);
+        }
+    }
+
+    static CirculationState readFrom(DataInputStream in) throws IOException {
+        long sequence = in.readLong();
+        int bookCount = in.readInt();
+        Map<Long, BookCirculation> books = new HashMap<>(bookCount * 4 / 3 + 1);
+        for (int i = 0; i < bookCount; i++) {
+            BookCirculation book = new BookCirculation(in.readLong());
+            book.loans = in.readLong();
+            book.returns = in.readLong();
+            book.extensions = in.readLong();
+            book.lost = in.readLong();
+            book.onLoan = in.readLong();
+            books.put(book.bookId, book);
+        }
+        int memberCount = in.readInt();
+        Map<Long, MemberCirculation> members = new HashMap<>(memberCount * 4 / 3 + 1);
+        for (int i = 0; i < memberCount; i++) {
+            MemberCirculation member = new MemberCirculation(in.readLong());
+            member.loans = in.readLong();
+            member.returns = in.readLong();
+            member.extensions = in.readLong();
+            member.lost = in.readLong();
+            member.onLoan = in.readLong();
+            member.fineCents = in.readLong();
+            members.put(member.memberId, member);
+        }
+        return new CirculationState(sequence, books, members);
+    }
+
+    /**
+     * Circulation of one title
+     */
+    @Data
+    public static class BookCirculation {
+        private final long bookId;
+        private long loans;
+        private long returns;
+        private long extensions;
+        private long lost;
+        private long onLoan;
+
+        BookCirculation copy() {
+            BookCirculation copy = new BookCirculation(bookId);
+            copy.loans = loans;
+            copy.returns = returns;
+            copy.extensions = extensions;
+            copy.lost = lost;
+            copy.onLoan = onLoan;
+            return copy;
+        }
+    }
+
+    /**
+     * Circulation of one member
+     */
+    @Data
+    public static class MemberCirculation {
+        private final long memberId;
+        private long loans;
+        private long returns;
+        private long extensions;
+        private long lost;
+        private long onLoan;
+        private long fineCents;
+
+        MemberCirculation copy() {
+            MemberCirculation copy = new MemberCirculation(memberId);
+            copy.loans = loans;
+            copy.returns = returns;
+            copy.extensions = extensions;
+            copy.lost = lost;
+            copy.onLoan = onLoan;
+            copy.fineCents = fineCents;
+            return copy;
+        }
+    }
+}
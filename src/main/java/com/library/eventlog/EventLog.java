@@ -0,0 +1,384 @@
+package com.library.eventlog;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of circulation events in fixed-size memory-mapped segment files.
+ * <p>
+ * Every event is a fixed 40-byte record, so a segment holds a fixed number of events and an event's position
+ * follows from its sequence number. Segments are named after the sequence number of their first event; the unwritten
+ * tail of a segment is zeros, and the type is written last, so a record counts once its type is set. The per-book
+ * and per-member {@link CirculationState} is kept current as events are appended and is snapshotted periodically;
+ * at startup it is rebuilt from the newest snapshot plus the events after it, without touching the database.
+ */
+@Slf4j
+@Component
+public class EventLog {
+
+    static final int RECORD_BYTES = 40;
+
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SNAPSHOT_PREFIX = "snapshot-";
+    private static final int SNAPSHOT_MAGIC = 0x4C425331;
+    private static final int SNAPSHOTS_KEPT = 2;
+
+    private final boolean enabled;
+    private final Path directory;
+    private final long eventsPerSegment;
+
+    private CirculationState state = new CirculationState();
+    private MappedByteBuffer segment;
+    private long segmentStart;
+    private long nextSequence;
+    private boolean dirty;
+
+    public EventLog(@Value("${library.eventlog.enabled:false}") boolean enabled,
+                    @Value("${library.eventlog.dir:data/event-log}") String directory,
+                    @Value("${library.eventlog.segment-bytes:67108864}") long segmentBytes) {
+        this.enabled = enabled;
+        this.directory = Path.of(directory);
+        // Positions within a segment are int offsets
+        this.eventsPerSegment = Math.max(1, Math.min(segmentBytes, Integer.MAX_VALUE) / RECORD_BYTES);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public synchronized void open() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Files.createDirectories(directory);
+            List<Long> segments = segmentStarts();
+            if (segments.isEmpty()) {
+                mapSegment(0);
+            } else {
+                long last = segments.get(segments.size() - 1);
+                mapSegment(last);
+                nextSequence = last + writtenRecords(segment);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open the event log in " + directory, e);
+        }
+
+        ReplayResult result = rebuild(true);
+        log.info("Opened event log in {} at event {}, state rebuilt from event {} in {} ms",
+                directory, nextSequence, result.getFromSequence(), result.getDurationMs());
+    }
+
+    /**
+     * Append one event and fold it into the live state
+     */
+    public synchronized void append(BorrowingEvent.Type type, long transactionId, long bookId, long memberId, int value) {
+        if (!enabled) {
+            return;
+        }
+        if (nextSequence - segmentStart == eventsPerSegment) {
+            mapSegment(nextSequence);
+        }
+        int position = (int) ((nextSequence - segmentStart) * RECORD_BYTES);
+        segment.putInt(position + 4, value);
+        segment.putLong(position + 8, System.currentTimeMillis());
+        segment.putLong(position + 16, transactionId);
+        segment.putLong(position + 24, bookId);
+        segment.putLong(position + 32, memberId);
+        segment.putInt(position, type.code);
+        nextSequence++;
+        dirty = true;
+        state.apply(type.code, bookId, memberId, value);
+    }
+
+    /**
+     * Circulation of a book from the live state, or null when the log has no event for it
+     */
+    public synchronized CirculationState.BookCirculation book(long bookId) {
+        return state.book(bookId);
+    }
+
+    /**
+     * Circulation of a member from the live state, or null when the log has no event for them
+     */
+    public synchronized CirculationState.MemberCirculation member(long memberId) {
+        return state.member(memberId);
+    }
+
+    public synchronized long size() {
+        return nextSequence;
+    }
+
+    /**
+     * Rebuild the per-book and per-member state by replaying the log, starting from the newest snapshot or from
+     * the first event, and make it the live state. The bulk of the replay runs without the lock, so appends from
+     * checkouts and returns carry on meanwhile; only the events appended during it are replayed under the lock,
+     * just before the new state is swapped in.
+     */
+    public ReplayResult rebuild(boolean fromSnapshot) {
+        long start = System.nanoTime();
+        CirculationState rebuilt = fromSnapshot ? loadSnapshot() : null;
+        if (rebuilt == null) {
+            rebuilt = new CirculationState();
+        }
+        long from = rebuilt.getSequence();
+        CirculationState target = rebuilt;
+        EventVisitor apply = (sequence, type, at, transactionId, bookId, memberId, value) ->
+                target.apply(type, bookId, memberId, value);
+        replay(from, size(), apply);
+
+        synchronized (this) {
+            replay(rebuilt.getSequence(), nextSequence, apply);
+            state = rebuilt;
+            return new ReplayResult(from, nextSequence - from, state.getBookCount(), state.getMemberCount(),
+                    (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    /**
+     * Every event of a book, oldest first; scans the whole log
+     */
+    public List<BorrowingEvent> bookHistory(long bookId) {
+        List<BorrowingEvent> events = new ArrayList<>();
+        replay(0, (sequence, type, at, transactionId, book, memberId, value) -> {
+            if (book == bookId) {
+                events.add(event(sequence, type, at, transactionId, book, memberId, value));
+            }
+        });
+        return events;
+    }
+
+    /**
+     * Every event of a member, oldest first; scans the whole log
+     */
+    public List<BorrowingEvent> memberHistory(long memberId) {
+        List<BorrowingEvent> events = new ArrayList<>();
+        replay(0, (sequence, type, at, transactionId, bookId, member, value) -> {
+            if (member == memberId) {
+                events.add(event(sequence, type, at, transactionId, bookId, member, value));
+            }
+        });
+        return events;
+    }
+
+    /**
+     * Feed the events from {@code fromSequence} up to the end of the log to the visitor, in order. Segments are
+     * mapped read-only one at a time and read in place, without per-event allocation.
+     */
+    public void replay(long fromSequence, EventVisitor visitor) {
+        replay(fromSequence, size(), visitor);
+    }
+
+    private void replay(long fromSequence, long end, EventVisitor visitor) {
+        if (!enabled || fromSequence >= end) {
+            return;
+        }
+        List<Long> segments;
+        try {
+            segments = segmentStarts();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot list the event log segments", e);
+        }
+        for (long first : segments) {
+            long last = Math.min(first + eventsPerSegment, end);
+            if (last <= fromSequence) {
+                continue;
+            }
+            MappedByteBuffer buffer = map(first, FileChannel.MapMode.READ_ONLY);
+            for (long sequence = Math.max(first, fromSequence); sequence < last; sequence++) {
+                int position = (int) ((sequence - first) * RECORD_BYTES);
+                int type = buffer.getInt(position);
+                if (type == 0) {
+                    break;
+                }
+                visitor.visit(sequence, type, buffer.getLong(position + 8), buffer.getLong(position + 16),
+                        buffer.getLong(position + 24), buffer.getLong(position + 32), buffer.getInt(position + 4));
+            }
+        }
+    }
+
+    /**
+     * Push appended events from the page cache to disk
+     */
+    @Scheduled(fixedDelayString = "${library.eventlog.force-ms:1000}")
+    public synchronized void force() {
+        if (enabled && dirty) {
+            segment.force();
+            dirty = false;
+        }
+    }
+
+    /**
+     * Write a compact snapshot of the live state, so a restart only replays the events after it
+     */
+    @Scheduled(fixedDelayString = "${library.eventlog.snapshot-ms:3600000}",
+            initialDelayString = "${library.eventlog.snapshot-ms:3600000}")
+    public void snapshot() {
+        CirculationState copy;
+        synchronized (this) {
+            if (!enabled || state.getSequence() == 0) {
+                return;
+            }
+            force();
+            copy = state.copy();
+        }
+
+        long start = System.currentTimeMillis();
+        Path target = directory.resolve(String.format("%s%020d.bin", SNAPSHOT_PREFIX, copy.getSequence()));
+        if (Files.exists(target)) {
+            return;
+        }
+        Path temp = directory.resolve(target.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), 1 << 16))) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            copy.writeTo(out);
+        } catch (IOException e) {
+            log.error("Failed to write event log snapshot at event {}", copy.getSequence(), e);
+            return;
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            List<Path> snapshots = snapshots();
+            for (int i = 0; i < snapshots.size() - SNAPSHOTS_KEPT; i++) {
+                Files.deleteIfExists(snapshots.get(i));
+            }
+        } catch (IOException e) {
+            log.error("Failed to publish event log snapshot at event {}", copy.getSequence(), e);
+            return;
+        }
+        log.info("Snapshotted event log state at event {} ({} books, {} members) in {} ms",
+                copy.getSequence(), copy.getBookCount(), copy.getMemberCount(), System.currentTimeMillis() - start);
+    }
+
+    @PreDestroy
+    public void close() {
+        force();
+    }
+
+    private CirculationState loadSnapshot() {
+        List<Path> snapshots;
+        try {
+            snapshots = snapshots();
+        } catch (IOException e) {
+            log.warn("Cannot list event log snapshots, replaying from the first event", e);
+            return null;
+        }
+        // Newest first; fall back to an older one if the newest is unreadable or ahead of the log
+        for (int i = snapshots.size() - 1; i >= 0; i--) {
+            Path path = snapshots.get(i);
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path), 1 << 16))) {
+                if (in.readInt() != SNAPSHOT_MAGIC) {
+                    throw new IOException("Not an event log snapshot");
+                }
+                CirculationState snapshot = CirculationState.readFrom(in);
+                if (snapshot.getSequence() <= size()) {
+                    return snapshot;
+                }
+                log.warn("Snapshot {} is ahead of the event log, ignoring it", path);
+            } catch (IOException e) {
+                log.warn("Cannot read event log snapshot {}", path, e);
+            }
+        }
+        return null;
+    }
+
+    private void mapSegment(long first) {
+        segment = map(first, FileChannel.MapMode.READ_WRITE);
+        segmentStart = first;
+    }
+
+    private MappedByteBuffer map(long first, FileChannel.MapMode mode) {
+        Path path = directory.resolve(String.format("%s%020d.log", SEGMENT_PREFIX, first));
+        StandardOpenOption[] options = mode == FileChannel.MapMode.READ_WRITE
+                ? new StandardOpenOption[]{StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new StandardOpenOption[]{StandardOpenOption.READ};
+        // The mapping stays valid after the channel is closed; a new read-write mapping sizes the file
+        try (FileChannel channel = FileChannel.open(path, options)) {
+            long bytes = mode == FileChannel.MapMode.READ_WRITE ? eventsPerSegment * RECORD_BYTES : channel.size();
+            MappedByteBuffer buffer = channel.map(mode, 0, bytes);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return buffer;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot map event log segment " + path, e);
+        }
+    }
+
+    private long writtenRecords(MappedByteBuffer buffer) {
+        long count = 0;
+        while (count < eventsPerSegment && buffer.getInt((int) (count * RECORD_BYTES)) != 0) {
+            count++;
+        }
+        return count;
+    }
+
+    private List<Long> segmentStarts() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(".log"))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - 4)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private List<Path> snapshots() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> {
+                        String name = path.getFileName().toString();
+                        return name.startsWith(SNAPSHOT_PREFIX) && name.endsWith(".bin");
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private static BorrowingEvent event(long sequence, int type, long at, long transactionId, long bookId,
+                                        long memberId, int value) {
+        return new BorrowingEvent(sequence, BorrowingEvent.Type.of(type), Instant.ofEpochMilli(at),
+                transactionId, bookId, memberId, value);
+    }
+
+    /**
+     * Outcome of a state rebuild
+     */
+    @Data
+    public static class ReplayResult {
+        private final long fromSequence;
+        private final long eventsReplayed;
+        private final int books;
+        private final int members;
+        private final long durationMs;
+    }
+
+    /**
+     * Receives replayed events as primitives, so a replay allocates nothing per event
+     */
+    @FunctionalInterface
+    public interface EventVisitor {
+        void visit(long sequence, int type, long at, long transactionId, long bookId, long memberId, int value);
+    }
+}
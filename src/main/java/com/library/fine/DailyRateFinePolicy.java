@@ -0,0 +1,40 @@
+package com.library.fine;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Flat amount per day late, after an optional number of grace days, optionally capped per loan
+ */
+@Component
+public class DailyRateFinePolicy implements FinePolicy {
+
+    private final double dailyRate;
+    private final int graceDays;
+    private final double maxFine;
+
+    public DailyRateFinePolicy(@Value("${library.fines.daily-rate:0.50}") double dailyRate,
+                               @Value("${library.fines.grace-days:0}") int graceDays,
+                               @Value("${library.fines.max-fine:0}") double maxFine) {
+        this.dailyRate = dailyRate;
+        this.graceDays = graceDays;
+        this.maxFine = maxFine;
+    }
+
+    @Override
+    public double fineFor(LocalDate dueDate, LocalDate asOf) {
+        long chargeableDays = ChronoUnit.DAYS.between(dueDate, asOf) - graceDays;
+        if (chargeableDays <= 0) {
+            return 0.0;
+        }
+        double fine = chargeableDays * dailyRate;
+        // A max fine of zero means no cap
+        if (maxFine > 0) {
+            fine = Math.min(fine, maxFine);
+        }
+        return Math.round(fine * 100) / 100.0;
+    }
+}
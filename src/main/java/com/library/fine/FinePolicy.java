@@ -0,0 +1,14 @@
+package com.library.fine;
+
+import java.time.LocalDate;
+
+/**
+ * Decides what a late loan owes. Declare another bean of this type to change the library's fine rules.
+ */
+public interface FinePolicy {
+
+    /**
+     * Fine owed on {@code asOf} by a loan due on {@code dueDate}; zero when it is not late
+     */
+    double fineFor(LocalDate dueDate, LocalDate asOf);
+}
@@ -0,0 +1,167 @@
+package com.library.hold;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory FIFO queues of the holds waiting for each book, plus the holds that have a copy set aside.
+ * <p>
+ * The holds table is the source of truth; these structures mirror it so that a returned copy is handed to the
+ * next hold in O(1) and queue positions are answered without a query. Each book's queue is guarded by its own
+ * monitor, so books never contend with each other.
+ */
+@Component
+public class HoldQueues {
+
+    private final ConcurrentHashMap<Long, BookQueue> queues = new ConcurrentHashMap<>();
+
+    // Waiting hold id -> book id, to find a hold's queue without a query
+    private final ConcurrentHashMap<Long, Long> waitingBooks = new ConcurrentHashMap<>();
+
+    // Book id -> (member id -> hold id) of the holds with a copy set aside
+    private final ConcurrentHashMap<Long, Map<Long, Long>> ready = new ConcurrentHashMap<>();
+
+    /**
+     * Put a hold at the back of its book's queue
+     */
+    public void enqueue(Long bookId, Long holdId, Long memberId) {
+        queue(bookId).offerLast(new HoldEntry(holdId, memberId));
+        waitingBooks.put(holdId, bookId);
+    }
+
+    /**
+     * Take the hold at the front of the book's queue, if any
+     */
+    public Optional<HoldEntry> poll(Long bookId) {
+        BookQueue queue = queues.get(bookId);
+        HoldEntry entry = queue != null ? queue.pollFirst() : null;
+        if (entry != null) {
+            waitingBooks.remove(entry.holdId());
+        }
+        return Optional.ofNullable(entry);
+    }
+
+    /**
+     * Give a hold taken with {@link #poll} its place back at the front, e.g. when handing it a copy rolled back
+     */
+    public void requeueFirst(Long bookId, HoldEntry entry) {
+        queue(bookId).offerFirst(entry);
+        waitingBooks.put(entry.holdId(), bookId);
+    }
+
+    /**
+     * Take a waiting hold out of its queue; false if it was not waiting
+     */
+    public boolean remove(Long holdId) {
+        Long bookId = waitingBooks.remove(holdId);
+        if (bookId == null) {
+            return false;
+        }
+        return queue(bookId).remove(holdId);
+    }
+
+    /**
+     * Position (1 for the front) of a waiting hold in its book's queue
+     */
+    public Optional<QueuePosition> position(Long holdId) {
+        Long bookId = waitingBooks.get(holdId);
+        if (bookId == null) {
+            return Optional.empty();
+        }
+        return queue(bookId).position(bookId, holdId);
+    }
+
+    /**
+     * Holds waiting for a book, front first
+     */
+    public List<HoldEntry> waiting(Long bookId) {
+        BookQueue queue = queues.get(bookId);
+        return queue != null ? queue.snapshot() : List.of();
+    }
+
+    /**
+     * Record that a copy of the book is set aside for the member's hold
+     */
+    public void markReady(Long bookId, Long memberId, Long holdId) {
+        ready.computeIfAbsent(bookId, id -> new ConcurrentHashMap<>()).put(memberId, holdId);
+    }
+
+    /**
+     * Hold id of the member's set-aside copy of the book, if any
+     */
+    public Long readyHold(Long bookId, Long memberId) {
+        Map<Long, Long> holds = ready.get(bookId);
+        return holds != null ? holds.get(memberId) : null;
+    }
+
+    /**
+     * Forget a set-aside copy (picked up or cancelled); false if another caller already took it
+     */
+    public boolean takeReady(Long bookId, Long memberId, Long holdId) {
+        Map<Long, Long> holds = ready.get(bookId);
+        return holds != null && holds.remove(memberId, holdId);
+    }
+
+    /**
+     * Drop every entry
+     */
+    public void clear() {
+        queues.clear();
+        waitingBooks.clear();
+        ready.clear();
+    }
+
+    private BookQueue queue(Long bookId) {
+        return queues.computeIfAbsent(bookId, id -> new BookQueue());
+    }
+
+    public record HoldEntry(Long holdId, Long memberId) {
+    }
+
+    public record QueuePosition(Long bookId, int position, int queueLength) {
+    }
+
+    /**
+     * Waiting holds of one book
+     */
+    private static final class BookQueue {
+        private final ArrayDeque<HoldEntry> entries = new ArrayDeque<>();
+
+        synchronized void offerLast(HoldEntry entry) {
+            entries.offerLast(entry);
+        }
+
+        synchronized void offerFirst(HoldEntry entry) {
+            entries.offerFirst(entry);
+        }
+
+        synchronized HoldEntry pollFirst() {
+            return entries.pollFirst();
+        }
+
+        synchronized boolean remove(Long holdId) {
+            return entries.removeIf(entry -> entry.holdId().equals(holdId));
+        }
+
+        synchronized Optional<QueuePosition> position(Long bookId, Long holdId) {
+            int position = 1;
+            for (Iterator<HoldEntry> it = entries.iterator(); it.hasNext(); position++) {
+                if (it.next().holdId().equals(holdId)) {
+                    return Optional.of(new QueuePosition(bookId, position, entries.size()));
+                }
+            }
+            return Optional.empty();
+        }
+
+        synchronized List<HoldEntry> snapshot() {
+            return new ArrayList<>(entries);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.library.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.library.exception.IdempotencyConflictException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Replays the response of a mutation for requests retried with the same {@code Idempotency-Key} header.
+ * <p>
+ * Keys live in a bounded Caffeine cache and expire a fixed time after they were first seen. The first request
+ * with a key runs the mutation; duplicates arriving while it is in flight wait for its outcome instead of running
+ * again, and later duplicates get the stored response without touching the database. A mutation that fails is
+ * forgotten, so the client can retry it; the requests already waiting on it get the same error.
+ */
+@Slf4j
+@Component
+public class IdempotencyStore {
+
+    private final Cache<String, Execution> executions;
+    private final long waitMs;
+
+    public IdempotencyStore(@Value("${library.idempotency.max-keys:100000}") long maxKeys,
+                            @Value("${library.idempotency.ttl-minutes:1440}") long ttlMinutes,
+                            @Value("${library.idempotency.wait-ms:30000}") long waitMs) {
+        this.executions = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+        this.waitMs = waitMs;
+    }
+
+    /**
+     * Run the mutation once per key within the given scope (e.g. the endpoint), replaying its response for
+     * duplicates. Without a key the mutation simply runs. Reusing a key for a different request is a conflict.
+     */
+    public <T> ResponseEntity<T> execute(String scope, String key, Object request, Supplier<ResponseEntity<T>> mutation) {
+        if (key == null || key.isBlank()) {
+            return mutation.get();
+        }
+
+        String cacheKey = scope + ":" + key;
+        Execution mine = new Execution(request);
+        Execution existing = executions.asMap().putIfAbsent(cacheKey, mine);
+        if (existing != null) {
+            if (!Objects.equals(existing.request, request)) {
+                throw new IdempotencyConflictException("Idempotency-Key " + key + " was already used for a different request");
+            }
+            log.debug("Replaying response for Idempotency-Key {} ({})", key, scope);
+            return replay(existing, key);
+        }
+
+        try {
+            ResponseEntity<T> response = mutation.get();
+            mine.response.complete(response);
+            return response;
+        } catch (Throwable e) {
+            // Errors too: a key left with an incomplete response would answer "still in progress" until it expires
+            executions.asMap().remove(cacheKey, mine);
+            mine.response.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ResponseEntity<T> replay(Execution execution, String key) {
+        try {
+            return (ResponseEntity<T>) execution.response.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyConflictException("Request with Idempotency-Key " + key + " is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for Idempotency-Key " + key, e);
+        }
+    }
+
+    /**
+     * The first execution for a key: the request it was made with and its eventual response
+     */
+    private static final class Execution {
+        private final Object request;
+        private final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+
+        private Execution(Object request) {
+            this.request = request;
+        }
+    }
+}
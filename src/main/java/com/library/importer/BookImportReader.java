@@ -0,0 +1,16 @@
+package com.library.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Pulls catalog records one at a time from a feed without buffering the whole input
+ */
+public interface BookImportReader extends Closeable {
+
+    /**
+     * Next record, or null at the end of the input.
+     * Throws {@link ImportRowException} for a record that cannot be parsed; the following call continues after it.
+     */
+    BookImportRow next() throws IOException;
+}
@@ -0,0 +1,22 @@
+package com.library.importer;
+
+import java.util.List;
+
+/**
+ * One parsed record of a catalog feed; authors, publisher and categories are referenced by name
+ */
+public record BookImportRow(
+        long line,
+        String isbn,
+        String title,
+        String edition,
+        Integer publicationYear,
+        String language,
+        String summary,
+        String coverImageUrl,
+        Integer totalCopies,
+        List<String> authors,
+        String publisher,
+        List<String> categories
+) {
+}
@@ -0,0 +1,121 @@
+package com.library.importer;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Streaming RFC 4180 reader for catalog feeds with a header row.
+ * Recognised columns: isbn, title, edition, publicationYear, language, summary, coverImageUrl, totalCopies,
+ * authors, publisher, categories. Authors and categories hold several names separated by ';' or '|'.
+ */
+public class CsvBookImportReader implements BookImportReader {
+
+    private final Reader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+    private long line = 1;
+    private long recordLine;
+
+    public CsvBookImportReader(Reader reader) throws IOException {
+        this.reader = reader;
+        List<String> header = readRecord();
+        if (header == null) {
+            throw new RuntimeException("CSV import is empty");
+        }
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        if (!columns.containsKey("title")) {
+            throw new RuntimeException("CSV header must contain a title column");
+        }
+    }
+
+    @Override
+    public BookImportRow next() throws IOException {
+        List<String> record;
+        do {
+            record = readRecord();
+            if (record == null) {
+                return null;
+            }
+        } while (record.size() == 1 && record.get(0).isBlank());
+
+        long at = recordLine;
+        return new BookImportRow(
+                at,
+                ImportFields.text(field(record, "isbn")),
+                ImportFields.text(field(record, "title")),
+                ImportFields.text(field(record, "edition")),
+                ImportFields.integer(field(record, "publicationyear"), "publicationYear", at),
+                ImportFields.text(field(record, "language")),
+                ImportFields.text(field(record, "summary")),
+                ImportFields.text(field(record, "coverimageurl")),
+                ImportFields.integer(field(record, "totalcopies"), "totalCopies", at),
+                ImportFields.list(field(record, "authors")),
+                ImportFields.text(field(record, "publisher")),
+                ImportFields.list(field(record, "categories"))
+        );
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private String field(List<String> record, String column) {
+        Integer index = columns.get(column);
+        return index != null && index < record.size() ? record.get(index) : null;
+    }
+
+    /**
+     * Read one record, honouring quoted fields that contain separators, quotes or line breaks
+     */
+    private List<String> readRecord() throws IOException {
+        recordLine = line;
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new ImportRowException(recordLine, "Unterminated quoted field");
+                }
+                if (c == '"') {
+                    c = read();
+                    if (c != '"') {
+                        quoted = false;
+                        continue;
+                    }
+                }
+                field.append((char) c);
+            } else if (c == -1 || c == '\n') {
+                fields.add(field.toString());
+                return fields;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        int c = reader.read();
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+}
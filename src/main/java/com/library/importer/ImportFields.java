@@ -0,0 +1,51 @@
+package com.library.importer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Value parsing shared by the feed readers
+ */
+final class ImportFields {
+
+    private ImportFields() {
+    }
+
+    static String text(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim();
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+
+    static Integer integer(String value, String field, long line) {
+        String text = text(value);
+        if (text == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(text);
+        } catch (NumberFormatException e) {
+            throw new ImportRowException(line, "Invalid " + field + ": " + text);
+        }
+    }
+
+    /**
+     * Split a multi-valued field such as "Neil Gaiman; Terry Pratchett"
+     */
+    static List<String> list(String value) {
+        List<String> values = new ArrayList<>();
+        String text = text(value);
+        if (text == null) {
+            return values;
+        }
+        for (String part : text.split("[;|]")) {
+            String item = text(part);
+            if (item != null) {
+                values.add(item);
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,17 @@
+package com.library.importer;
+
+import lombok.Getter;
+
+/**
+ * A feed record that could not be parsed; the reader has already moved past it
+ */
+@Getter
+public class ImportRowException extends RuntimeException {
+
+    private final long line;
+
+    public ImportRowException(long line, String message) {
+        super(message);
+        this.line = line;
+    }
+}
@@ -0,0 +1,88 @@
+package com.library.importer;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Streaming reader for newline-delimited JSON feeds: one book object per line, using the CSV column names as keys.
+ * Authors and categories may be JSON arrays or delimited strings.
+ */
+public class NdjsonBookImportReader implements BookImportReader {
+
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private long line;
+
+    public NdjsonBookImportReader(BufferedReader reader, ObjectMapper objectMapper) {
+        this.reader = reader;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public BookImportRow next() throws IOException {
+        String text;
+        do {
+            text = reader.readLine();
+            if (text == null) {
+                return null;
+            }
+            line++;
+        } while (text.isBlank());
+
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(text);
+        } catch (JsonProcessingException e) {
+            throw new ImportRowException(line, "Malformed JSON: " + e.getOriginalMessage());
+        }
+        if (!node.isObject()) {
+            throw new ImportRowException(line, "Expected a JSON object");
+        }
+
+        return new BookImportRow(
+                line,
+                ImportFields.text(value(node, "isbn")),
+                ImportFields.text(value(node, "title")),
+                ImportFields.text(value(node, "edition")),
+                ImportFields.integer(value(node, "publicationYear"), "publicationYear", line),
+                ImportFields.text(value(node, "language")),
+                ImportFields.text(value(node, "summary")),
+                ImportFields.text(value(node, "coverImageUrl")),
+                ImportFields.integer(value(node, "totalCopies"), "totalCopies", line),
+                names(node, "authors"),
+                ImportFields.text(value(node, "publisher")),
+                names(node, "categories")
+        );
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static String value(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static List<String> names(JsonNode node, String field) {
+        JsonNode value = node.get(field);
+        if (value == null || !value.isArray()) {
+            return ImportFields.list(value(node, field));
+        }
+        List<String> names = new ArrayList<>();
+        for (JsonNode item : value) {
+            String name = ImportFields.text(item.asText());
+            if (name != null) {
+                names.add(name);
+            }
+        }
+        return names;
+    }
+}
@@ -0,0 +1,331 @@
+package com.library.inventory;
+
+import com.library.search.BookAvailabilityIndex;
+import com.library.service.CatalogVersion;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * In-memory ledger of available copies for hot titles.
+ * <p>
+ * Every change to a book goes through that book's lock-free mailbox and is applied by a single writer at a time,
+ * so reservations are confirmed without touching the {@code books} row. The net change per book is written back
+ * to {@code books.available_copies} in small JDBC batches. The first time a book is loaded after startup its
+ * available copies are recomputed from the open loans in {@code borrowing_transactions} and the copies set aside
+ * for {@code READY} holds, which repairs any delta lost in a crash.
+ * <p>
+ * Single instance only: the ledger is the authority for the books it has loaded, so with two nodes each would
+ * rebuild and flush its own view of the same rows and oversell. Run exactly one application instance against a
+ * database while the ledger is in use.
+ */
+@Slf4j
+@Component
+public class InventoryLedger {
+
+    private static final int DRAIN_BATCH = 256;
+    private static final int FLUSH_BATCH = 500;
+    private static final long REPLY_TIMEOUT_MS = 5000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BookAvailabilityIndex bookAvailabilityIndex;
+    private final CatalogVersion catalogVersion;
+    private final boolean enabled;
+    private final ExecutorService writers;
+
+    private final ConcurrentHashMap<Long, BookLedger> books = new ConcurrentHashMap<>();
+
+    // Books already reconciled against borrowing_transactions since startup
+    private final Set<Long> recovered = ConcurrentHashMap.newKeySet();
+
+    public InventoryLedger(JdbcTemplate jdbcTemplate,
+                           BookAvailabilityIndex bookAvailabilityIndex,
+                           CatalogVersion catalogVersion,
+                           @Value("${library.inventory.ledger.enabled:false}") boolean enabled,
+                           @Value("${library.inventory.ledger.writer-threads:4}") int writerThreads) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bookAvailabilityIndex = bookAvailabilityIndex;
+        this.catalogVersion = catalogVersion;
+        this.enabled = enabled;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.writers = enabled
+                ? Executors.newFixedThreadPool(writerThreads, runnable -> {
+                    Thread thread = new Thread(runnable, "inventory-ledger-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                })
+                : null;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Change the available copies of a book and wait for the ledger's answer; returns the new available count
+     */
+    public int adjust(Long bookId, int change) {
+        CompletableFuture<Integer> reply = submit(bookId, change);
+        try {
+            return reply.get(REPLY_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            compensateWhenApplied(reply, bookId, change);
+            throw new RuntimeException("Interrupted while updating copies of book " + bookId);
+        } catch (TimeoutException e) {
+            compensateWhenApplied(reply, bookId, change);
+            throw new RuntimeException("Timed out updating copies of book " + bookId);
+        }
+    }
+
+    /**
+     * Queue a change to the available copies of a book
+     */
+    public CompletableFuture<Integer> submit(Long bookId, int change) {
+        CompletableFuture<Integer> reply = new CompletableFuture<>();
+        enqueue(bookId, new Command(change, false, reply));
+        return reply;
+    }
+
+    /**
+     * Undo a change whose transaction rolled back
+     */
+    public void compensate(Long bookId, int change) {
+        submit(bookId, -change).whenComplete((available, error) -> {
+            if (error != null) {
+                log.error("Could not compensate change of {} on book {}", change, bookId, error);
+            }
+        });
+    }
+
+    /**
+     * Write back and drop the ledger entry of a book so the next change reloads it from the database.
+     * Used around administrative changes that rewrite the book row directly.
+     */
+    public void evict(Long bookId) {
+        if (!enabled || !books.containsKey(bookId)) {
+            return;
+        }
+        CompletableFuture<Integer> reply = new CompletableFuture<>();
+        enqueue(bookId, new Command(0, true, reply));
+        try {
+            reply.get(REPLY_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new RuntimeException("Could not release book " + bookId + " from the inventory ledger", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while releasing book " + bookId + " from the inventory ledger");
+        }
+    }
+
+    /**
+     * Write the net change of every book back to the books table
+     */
+    @Scheduled(fixedDelayString = "${library.inventory.ledger.flush-ms:100}")
+    public void flushPending() {
+        if (enabled) {
+            flush(books.values());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        writers.shutdown();
+        writers.awaitTermination(REPLY_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        flush(books.values());
+    }
+
+    private void enqueue(Long bookId, Command command) {
+        if (!enabled) {
+            throw new IllegalStateException("Inventory ledger is disabled");
+        }
+        BookLedger ledger = books.computeIfAbsent(bookId, BookLedger::new);
+        ledger.mailbox.offer(command);
+        schedule(ledger);
+    }
+
+    private void schedule(BookLedger ledger) {
+        if (ledger.scheduled.compareAndSet(false, true)) {
+            writers.execute(() -> drain(ledger));
+        }
+    }
+
+    /**
+     * Apply queued commands of one book; only one thread drains a given mailbox at a time
+     */
+    private void drain(BookLedger ledger) {
+        int processed = 0;
+        Command command;
+        while (processed < DRAIN_BATCH && (command = ledger.mailbox.poll()) != null) {
+            apply(ledger, command);
+            processed++;
+        }
+        ledger.scheduled.set(false);
+        if (!ledger.mailbox.isEmpty()) {
+            schedule(ledger);
+        }
+    }
+
+    private void apply(BookLedger ledger, Command command) {
+        if (ledger.retired) {
+            // Raced with an eviction: hand the command to the book's fresh entry
+            enqueue(ledger.bookId, command);
+            return;
+        }
+        try {
+            if (command.evict()) {
+                retire(ledger);
+                command.reply().complete(ledger.available);
+                return;
+            }
+            if (!ledger.loaded) {
+                load(ledger);
+            }
+
+            int newAvailable = ledger.available + command.change();
+            if (newAvailable < 0) {
+                throw new RuntimeException("Cannot reduce available copies below zero");
+            }
+            if (newAvailable > ledger.total) {
+                throw new RuntimeException("Available copies cannot exceed total copies");
+            }
+            ledger.available = newAvailable;
+            ledger.pendingDelta.addAndGet(command.change());
+            command.reply().complete(newAvailable);
+        } catch (RuntimeException e) {
+            command.reply().completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Read a book's copies; on the first load since startup recompute availability from open loans and READY holds
+     */
+    private void load(BookLedger ledger) {
+        List<int[]> rows = jdbcTemplate.query(
+                "SELECT total_copies, available_copies FROM books WHERE id = ?",
+                (rs, rowNum) -> new int[]{rs.getInt(1), rs.getInt(2)},
+                ledger.bookId);
+        if (rows.isEmpty()) {
+            retire(ledger);
+            throw new RuntimeException("Book not found with id: " + ledger.bookId);
+        }
+        ledger.total = rows.get(0)[0];
+        ledger.available = rows.get(0)[1];
+
+        if (recovered.add(ledger.bookId)) {
+            Integer openLoans = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM borrowing_transactions WHERE book_id = ? AND return_date IS NULL",
+                    Integer.class, ledger.bookId);
+            Integer readyHolds = jdbcTemplate.queryForObject(
+                    "SELECT COUNT(*) FROM holds WHERE book_id = ? AND status = 'READY'",
+                    Integer.class, ledger.bookId);
+            int actual = Math.max(0, ledger.total - (openLoans == null ? 0 : openLoans)
+                    - (readyHolds == null ? 0 : readyHolds));
+            if (actual != ledger.available) {
+                log.warn("Book {} had {} available copies on disk but {} according to open loans and holds; correcting",
+                        ledger.bookId, ledger.available, actual);
+                ledger.pendingDelta.addAndGet(actual - ledger.available);
+                ledger.available = actual;
+            }
+        }
+        ledger.loaded = true;
+    }
+
+    private void retire(BookLedger ledger) {
+        ledger.retired = true;
+        books.remove(ledger.bookId, ledger);
+        flush(List.of(ledger));
+    }
+
+    private synchronized void flush(Collection<BookLedger> ledgers) {
+        List<Object[]> batch = new ArrayList<>();
+        List<BookLedger> owners = new ArrayList<>();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        for (BookLedger ledger : ledgers) {
+            int delta = ledger.pendingDelta.getAndSet(0);
+            if (delta == 0) {
+                continue;
+            }
+            batch.add(new Object[]{delta, now, ledger.bookId});
+            owners.add(ledger);
+            if (batch.size() == FLUSH_BATCH) {
+                write(batch, owners);
+                batch = new ArrayList<>();
+                owners = new ArrayList<>();
+            }
+        }
+        write(batch, owners);
+    }
+
+    private void write(List<Object[]> batch, List<BookLedger> owners) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE books SET available_copies = available_copies + ?, updated_at = ?, version = version + 1 " +
+                            "WHERE id = ?", batch);
+            owners.forEach(ledger -> bookAvailabilityIndex.markStale(ledger.bookId));
+            catalogVersion.bookChanged();
+        } catch (DataAccessException e) {
+            log.error("Failed to write back {} inventory changes; will retry", batch.size(), e);
+            for (int i = 0; i < owners.size(); i++) {
+                owners.get(i).pendingDelta.addAndGet((Integer) batch.get(i)[0]);
+            }
+        }
+    }
+
+    private void compensateWhenApplied(CompletableFuture<Integer> reply, Long bookId, int change) {
+        reply.thenRun(() -> compensate(bookId, change));
+    }
+
+    private record Command(int change, boolean evict, CompletableFuture<Integer> reply) {
+    }
+
+    /**
+     * Ledger entry of one book. The plain fields are only touched by the thread currently draining the mailbox.
+     */
+    private static final class BookLedger {
+        private final Long bookId;
+        private final ConcurrentLinkedQueue<Command> mailbox = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicInteger pendingDelta = new AtomicInteger();
+        private volatile boolean retired;
+        private boolean loaded;
+        private int total;
+        private int available;
+
+        private BookLedger(Long bookId) {
+            this.bookId = bookId;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.library.mapper;
+
+import com.library.dto.AuthorResponse;
+import com.library.dto.BookResponse;
+import com.library.dto.CategoryResponse;
+import com.library.dto.PublisherResponse;
+import com.library.entity.Author;
+import com.library.entity.Book;
+import com.library.entity.Category;
+import com.library.entity.Publisher;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Maps a book with its authors, publisher and categories. Pages should come from BookService,
+ * which initialises those relations up front so mapping does not trigger lazy loads.
+ */
+@Component
+public class BookMapper {
+
+    public BookResponse toResponse(Book book) {
+        if (book == null) {
+            return null;
+        }
+
+        return BookResponse.builder()
+                .id(book.getId())
+                .title(book.getTitle())
+                .isbn(book.getIsbn())
+                .edition(book.getEdition())
+                .publicationYear(book.getPublicationYear())
+                .language(book.getLanguage())
+                .summary(book.getSummary())
+                .coverImageUrl(book.getCoverImageUrl())
+                .totalCopies(book.getTotalCopies())
+                .availableCopies(book.getAvailableCopies())
+                .authors(toAuthorResponses(book.getAuthors()))
+                .publisher(toPublisherResponse(book.getPublisher()))
+                .categories(toCategoryResponses(book.getCategories()))
+                .createdAt(book.getCreatedAt())
+                .updatedAt(book.getUpdatedAt())
+                .build();
+    }
+
+    private Set<AuthorResponse> toAuthorResponses(Set<Author> authors) {
+        Set<AuthorResponse> responses = new LinkedHashSet<>();
+        if (authors != null) {
+            for (Author author : authors) {
+                AuthorResponse response = new AuthorResponse();
+                response.setId(author.getId());
+                response.setName(author.getFullName());
+                response.setBiography(author.getBiography());
+                responses.add(response);
+            }
+        }
+        return responses;
+    }
+
+    private PublisherResponse toPublisherResponse(Publisher publisher) {
+        if (publisher == null) {
+            return null;
+        }
+        PublisherResponse response = new PublisherResponse();
+        response.setId(publisher.getId());
+        response.setName(publisher.getName());
+        response.setAddress(publisher.getAddress());
+        response.setContactInfo(publisher.getContactEmail());
+        return response;
+    }
+
+    private Set<CategoryResponse> toCategoryResponses(Set<Category> categories) {
+        Set<CategoryResponse> responses = new LinkedHashSet<>();
+        if (categories != null) {
+            for (Category category : categories) {
+                CategoryResponse response = new CategoryResponse();
+                response.setId(category.getId());
+                response.setName(category.getName());
+                response.setDescription(category.getDescription());
+                responses.add(response);
+            }
+        }
+        return responses;
+    }
+}
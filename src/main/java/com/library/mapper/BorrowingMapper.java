@@ -22,6 +22,7 @@ public class BorrowingMapper {
                 .dueDate(transaction.getDueDate())
                 .returnDate(transaction.getReturnDate())
                 .fineAmount(transaction.getFineAmount())
+                .accruedFine(transaction.getAccruedFine())
                 .status(transaction.getStatus())
                 .notes(transaction.getNotes())
                 .build();
@@ -0,0 +1,52 @@
+package com.library.mapper;
+
+import com.library.dto.HoldPositionResponse;
+import com.library.dto.HoldQueueResponse;
+import com.library.dto.HoldResponse;
+import com.library.entity.Hold;
+import com.library.hold.HoldQueues;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class HoldMapper {
+
+    public HoldResponse toResponse(Hold hold) {
+        if (hold == null) {
+            return null;
+        }
+
+        return HoldResponse.builder()
+                .id(hold.getId())
+                .bookId(hold.getBook() != null ? hold.getBook().getId() : null)
+                .memberId(hold.getMember() != null ? hold.getMember().getId() : null)
+                .status(hold.getStatus())
+                .placedAt(hold.getPlacedAt())
+                .readyAt(hold.getReadyAt())
+                .closedAt(hold.getClosedAt())
+                .build();
+    }
+
+    public HoldPositionResponse toPositionResponse(Long holdId, HoldQueues.QueuePosition position) {
+        return HoldPositionResponse.builder()
+                .holdId(holdId)
+                .bookId(position.bookId())
+                .position(position.position())
+                .queueLength(position.queueLength())
+                .build();
+    }
+
+    public HoldQueueResponse toQueueResponse(Long bookId, List<HoldQueues.HoldEntry> waiting) {
+        List<HoldQueueResponse.QueueEntry> entries = new ArrayList<>(waiting.size());
+        for (HoldQueues.HoldEntry entry : waiting) {
+            entries.add(new HoldQueueResponse.QueueEntry(entries.size() + 1, entry.holdId(), entry.memberId()));
+        }
+        return HoldQueueResponse.builder()
+                .bookId(bookId)
+                .queueLength(entries.size())
+                .entries(entries)
+                .build();
+    }
+}
@@ -0,0 +1,175 @@
+package com.library.member;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out membership ids from blocks claimed off a database-backed sequence, so ids are unique across every
+ * node sharing the database while only one id in {@code blockSize} costs a round trip.
+ * <p>
+ * A block is claimed by a single atomic increment of the one {@code membership_id_blocks} row, read back inside
+ * the same short transaction, so nodes racing for it are serialized by the row lock. Claims run on a thread of the
+ * allocator's own, outside any caller's transaction, and the next block is claimed while half of the current one
+ * is still left, so creating a member normally never waits on the database for its id. Ids left in a block when
+ * the node stops are simply skipped. An id is {@code M}, the sequence number and a Luhn check digit, e.g.
+ * {@code M10000008}; numbers start at seven digits so they can never clash with the older five-digit random ids.
+ */
+@Slf4j
+@Component
+public class MembershipIdAllocator {
+
+    private static final String SEQUENCE = "membership_id";
+    private static final long FIRST_NUMBER = 1_000_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate claimTransaction;
+    private final int blockSize;
+    private final ExecutorService claimer;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Next number to hand out and the end (exclusive) of the block it comes from
+    private long next;
+    private long limit;
+
+    // Start of the block being claimed ahead, null when none is under way
+    private CompletableFuture<Long> nextBlock;
+
+    public MembershipIdAllocator(JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${library.membership-ids.block-size:100}") int blockSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.claimTransaction = new TransactionTemplate(transactionManager);
+        this.claimTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.blockSize = Math.max(2, blockSize);
+        this.claimer = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "membership-id-claimer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Create the block sequence on first start (every node runs this, and the first one to insert the row wins),
+     * then start claiming this node's first block
+     */
+    @PostConstruct
+    public void createSequence() {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS membership_id_blocks " +
+                "(name VARCHAR(64) NOT NULL PRIMARY KEY, next_val BIGINT NOT NULL)");
+        Integer rows = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM membership_id_blocks WHERE name = ?", Integer.class, SEQUENCE);
+        if (rows == null || rows == 0) {
+            try {
+                jdbcTemplate.update("INSERT INTO membership_id_blocks (name, next_val) VALUES (?, ?)",
+                        SEQUENCE, FIRST_NUMBER);
+            } catch (DuplicateKeyException e) {
+                log.debug("Membership id sequence created by another node");
+            }
+        }
+        lock.lock();
+        try {
+            claimAhead();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        claimer.shutdownNow();
+    }
+
+    /**
+     * Next membership id; waits for a block only when ids are handed out faster than blocks are claimed ahead
+     */
+    public String nextId() {
+        lock.lock();
+        try {
+            if (next == limit) {
+                claimAhead();
+                long start = awaitNextBlock();
+                next = start;
+                limit = start + blockSize;
+            }
+            if (limit - next <= blockSize / 2) {
+                claimAhead();
+            }
+            return format(next++);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Callers hold the lock
+    private void claimAhead() {
+        if (nextBlock == null) {
+            nextBlock = CompletableFuture.supplyAsync(this::claimBlock, claimer);
+        }
+    }
+
+    private long awaitNextBlock() {
+        CompletableFuture<Long> claim = nextBlock;
+        nextBlock = null;
+        try {
+            return claim.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private long claimBlock() {
+        Long end = claimTransaction.execute(status -> {
+            jdbcTemplate.update("UPDATE membership_id_blocks SET next_val = next_val + ? WHERE name = ?",
+                    blockSize, SEQUENCE);
+            // Reads this transaction's own increment, under the row lock it still holds
+            return jdbcTemplate.queryForObject(
+                    "SELECT next_val FROM membership_id_blocks WHERE name = ?", Long.class, SEQUENCE);
+        });
+        if (end == null) {
+            throw new IllegalStateException("Membership id sequence is missing");
+        }
+        log.debug("Claimed membership id block [{}, {})", end - blockSize, end);
+        return end - blockSize;
+    }
+
+    static String format(long number) {
+        return "M" + number + checkDigit(number);
+    }
+
+    /**
+     * Luhn check digit of a number, which catches any single mistyped digit and most swapped neighbours
+     */
+    static int checkDigit(long number) {
+        int sum = 0;
+        boolean doubled = true;
+        for (long rest = number; rest > 0; rest /= 10) {
+            int digit = (int) (rest % 10);
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return (10 - sum % 10) % 10;
+    }
+}
@@ -0,0 +1,21 @@
+package com.library.reminder;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Default sink: writes each reminder to the application log
+ */
+@Slf4j
+@Component
+public class LoggingNotificationSink implements NotificationSink {
+
+    @Override
+    public void send(Reminder reminder) {
+        switch (reminder.type()) {
+            case LOAN_DUE_SOON -> log.info("Reminder: loan {} is due on {}", reminder.subjectId(), reminder.date());
+            case MEMBERSHIP_EXPIRING -> log.info("Reminder: membership of member {} expires on {}",
+                    reminder.subjectId(), reminder.date());
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.library.reminder;
+
+/**
+ * Delivers fired reminders (e-mail, SMS, a message queue...). Every sink bean receives every reminder;
+ * sinks are called off the scheduler's lock and should hand slow work off rather than block.
+ */
+public interface NotificationSink {
+
+    void send(Reminder reminder);
+}
@@ -0,0 +1,14 @@
+package com.library.reminder;
+
+import java.time.LocalDate;
+
+/**
+ * A reminder fired by the {@link ReminderScheduler}: a loan falling due soon, or a membership reaching its expiry
+ * date. {@code subjectId} is the borrowing transaction id or the member id, depending on the type.
+ */
+public record Reminder(Type type, long subjectId, LocalDate date) {
+
+    public enum Type {
+        LOAN_DUE_SOON, MEMBERSHIP_EXPIRING
+    }
+}
@@ -0,0 +1,171 @@
+package com.library.reminder;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fires loan due-date reminders and membership expiry reminders from an in-process {@link TimingWheel}, so no
+ * table is polled for them. Open loans and active members are loaded once at startup; after that the borrowing and
+ * member services keep the wheel current as loans are made, extended and closed and members are changed.
+ * Fired reminders are handed to every {@link NotificationSink}. Delivery is at most once: reminders that fall due
+ * while the application is down are not sent after it restarts.
+ */
+@Slf4j
+@Component
+public class ReminderScheduler {
+
+    // 64 buckets per level, 4 levels: with one-minute ticks the wheel spans 2^24 minutes (about 32 years)
+    private static final int WHEEL_BITS = 6;
+    private static final int WHEEL_LEVELS = 4;
+
+    private static final String OPEN_LOANS =
+            "SELECT id, due_date FROM borrowing_transactions " +
+                    "WHERE status IN ('BORROWED', 'OVERDUE') AND return_date IS NULL AND due_date >= ?";
+
+    private static final String ACTIVE_MEMBERS =
+            "SELECT id, membership_expiry FROM members WHERE status = 'ACTIVE' AND membership_expiry >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<NotificationSink> sinks;
+    private final long tickMs;
+    private final int dueSoonDays;
+    private final LocalTime sendAt;
+    private final ZoneId zone = ZoneId.systemDefault();
+
+    private final TimingWheel<Reminder> wheel;
+    private final Map<Long, TimingWheel.Timer<Reminder>> loanTimers = new HashMap<>();
+    private final Map<Long, TimingWheel.Timer<Reminder>> memberTimers = new HashMap<>();
+
+    public ReminderScheduler(JdbcTemplate jdbcTemplate,
+                             List<NotificationSink> sinks,
+                             @Value("${library.reminders.tick-ms:60000}") long tickMs,
+                             @Value("${library.reminders.due-soon-days:3}") int dueSoonDays,
+                             @Value("${library.reminders.send-at:09:00}") LocalTime sendAt) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.sinks = sinks;
+        this.tickMs = tickMs;
+        this.dueSoonDays = dueSoonDays;
+        this.sendAt = sendAt;
+        this.wheel = new TimingWheel<>(WHEEL_BITS, WHEEL_LEVELS, System.currentTimeMillis() / tickMs);
+    }
+
+    /**
+     * Load the reminders still ahead for open loans and active members, streaming both tables once.
+     * <p>
+     * Which reminders already went out is not persisted, so reminders whose send time has passed are skipped
+     * rather than sent again: a reminder due while the application was down (e.g. a restart across
+     * {@code library.reminders.send-at} on the day it was due) is not sent at all.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        long start = System.currentTimeMillis();
+        LocalDate today = LocalDate.now(zone);
+        synchronized (this) {
+            jdbcTemplate.query(OPEN_LOANS, (RowCallbackHandler) row ->
+                    scheduleLoan(row.getLong("id"), row.getDate("due_date").toLocalDate(), false), Date.valueOf(today));
+            jdbcTemplate.query(ACTIVE_MEMBERS, (RowCallbackHandler) row ->
+                    scheduleMembership(row.getLong("id"), row.getDate("membership_expiry").toLocalDate(), false),
+                    Date.valueOf(today));
+            log.info("Loaded {} loan and {} membership reminders in {} ms",
+                    loanTimers.size(), memberTimers.size(), System.currentTimeMillis() - start);
+        }
+    }
+
+    /**
+     * Remind the member a few days before the loan is due, replacing any earlier reminder for it
+     */
+    public synchronized void scheduleLoan(long transactionId, LocalDate dueDate) {
+        scheduleLoan(transactionId, dueDate, true);
+    }
+
+    public synchronized void cancelLoan(long transactionId) {
+        wheel.cancel(loanTimers.remove(transactionId));
+    }
+
+    /**
+     * Remind the member when their membership expires, replacing any earlier reminder for them
+     */
+    public synchronized void scheduleMembership(long memberId, LocalDate expiry) {
+        scheduleMembership(memberId, expiry, true);
+    }
+
+    public synchronized void cancelMembership(long memberId) {
+        wheel.cancel(memberTimers.remove(memberId));
+    }
+
+    public synchronized int pending() {
+        return wheel.size();
+    }
+
+    /**
+     * Advance the wheel to the current time and deliver whatever fell due
+     */
+    @Scheduled(fixedRateString = "${library.reminders.tick-ms:60000}")
+    public void tick() {
+        List<Reminder> fired = new ArrayList<>();
+        synchronized (this) {
+            wheel.advanceTo(System.currentTimeMillis() / tickMs, reminder -> {
+                if (reminder.type() == Reminder.Type.LOAN_DUE_SOON) {
+                    loanTimers.remove(reminder.subjectId());
+                } else {
+                    memberTimers.remove(reminder.subjectId());
+                }
+                fired.add(reminder);
+            });
+        }
+        for (Reminder reminder : fired) {
+            for (NotificationSink sink : sinks) {
+                try {
+                    sink.send(reminder);
+                } catch (RuntimeException e) {
+                    log.error("Notification sink {} failed for {}", sink.getClass().getSimpleName(), reminder, e);
+                }
+            }
+        }
+    }
+
+    // A reminder whose time has passed fires on the next tick when scheduled live, and is skipped at startup
+    // (so one due during downtime is dropped, see loadOnStartup)
+    private void scheduleLoan(long transactionId, LocalDate dueDate, boolean firePassed) {
+        cancelLoan(transactionId);
+        if (dueDate == null || dueDate.isBefore(LocalDate.now(zone))) {
+            return;
+        }
+        long tick = tickOf(dueDate.minusDays(dueSoonDays));
+        if (firePassed || tick > wheel.currentTick()) {
+            loanTimers.put(transactionId,
+                    wheel.schedule(tick, new Reminder(Reminder.Type.LOAN_DUE_SOON, transactionId, dueDate)));
+        }
+    }
+
+    private void scheduleMembership(long memberId, LocalDate expiry, boolean firePassed) {
+        cancelMembership(memberId);
+        if (expiry == null || expiry.isBefore(LocalDate.now(zone))) {
+            return;
+        }
+        long tick = tickOf(expiry);
+        if (firePassed || tick > wheel.currentTick()) {
+            memberTimers.put(memberId,
+                    wheel.schedule(tick, new Reminder(Reminder.Type.MEMBERSHIP_EXPIRING, memberId, expiry)));
+        }
+    }
+
+    private long tickOf(LocalDate day) {
+        return day.atTime(sendAt).atZone(zone).toInstant().toEpochMilli() / tickMs;
+    }
+}
@@ -0,0 +1,175 @@
+package com.library.reminder;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: timers are kept in buckets by deadline tick, so scheduling, cancelling and each tick
+ * cost O(1) regardless of how many timers are pending.
+ * <p>
+ * Level {@code k} has {@code wheelSize} buckets of {@code wheelSize^k} ticks each. A timer goes to the lowest
+ * level whose span covers its distance from the current tick; when the current tick enters a bucket of a higher
+ * level, the timers in it are moved down a level (each timer cascades at most once per level). Timers further out
+ * than the top level wait in its farthest bucket and are placed again when it comes round.
+ * Not thread-safe; the owner serializes access.
+ */
+public class TimingWheel<T> {
+
+    private final int bits;
+    private final int mask;
+    private final Bucket<T>[][] levels;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public TimingWheel(int wheelBits, int levelCount, long startTick) {
+        this.bits = wheelBits;
+        this.mask = (1 << wheelBits) - 1;
+        this.levels = new Bucket[levelCount][1 << wheelBits];
+        for (Bucket<T>[] level : levels) {
+            for (int slot = 0; slot < level.length; slot++) {
+                level[slot] = new Bucket<>();
+            }
+        }
+        this.currentTick = startTick;
+    }
+
+    public long currentTick() {
+        return currentTick;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Schedule a payload to fire at the given tick; a tick already passed fires on the next one
+     */
+    public Timer<T> schedule(long deadlineTick, T payload) {
+        Timer<T> timer = new Timer<>(deadlineTick, payload);
+        place(timer, Math.max(deadlineTick, currentTick + 1));
+        size++;
+        return timer;
+    }
+
+    /**
+     * Remove a pending timer; false when it already fired or was cancelled
+     */
+    public boolean cancel(Timer<T> timer) {
+        if (timer == null || timer.bucket == null) {
+            return false;
+        }
+        timer.bucket.unlink(timer);
+        size--;
+        return true;
+    }
+
+    /**
+     * Move the wheel forward to the given tick, handing the timers that fall due to the consumer tick by tick
+     */
+    public void advanceTo(long tick, Consumer<T> expired) {
+        while (currentTick < tick) {
+            currentTick++;
+            // Top-down, so timers cascading into a bucket that is itself cascading this tick keep moving down
+            for (int level = levels.length - 1; level > 0; level--) {
+                if ((currentTick & ((1L << (level * bits)) - 1)) == 0) {
+                    Bucket<T> bucket = levels[level][(int) ((currentTick >>> (level * bits)) & mask)];
+                    for (Timer<T> timer = bucket.clear(); timer != null; ) {
+                        Timer<T> next = timer.next;
+                        timer.next = null;
+                        timer.prev = null;
+                        place(timer, Math.max(timer.deadlineTick, currentTick));
+                        timer = next;
+                    }
+                }
+            }
+            Bucket<T> due = levels[0][(int) (currentTick & mask)];
+            for (Timer<T> timer = due.clear(); timer != null; ) {
+                Timer<T> next = timer.next;
+                timer.next = null;
+                timer.prev = null;
+                size--;
+                expired.accept(timer.payload);
+                timer = next;
+            }
+        }
+    }
+
+    private void place(Timer<T> timer, long tick) {
+        long distance = tick - currentTick;
+        int level = 0;
+        while (level < levels.length - 1 && distance >= 1L << ((level + 1) * bits)) {
+            level++;
+        }
+        long span = 1L << ((level + 1) * bits);
+        if (distance >= span) {
+            // Beyond the top level: park in its farthest bucket and place again when that comes round
+            tick = currentTick + span - 1;
+        }
+        levels[level][(int) ((tick >>> (level * bits)) & mask)].link(timer);
+    }
+
+    /**
+     * A scheduled payload; doubles as the handle for cancelling it
+     */
+    public static final class Timer<T> {
+        private final long deadlineTick;
+        private final T payload;
+        private Bucket<T> bucket;
+        private Timer<T> prev;
+        private Timer<T> next;
+
+        private Timer(long deadlineTick, T payload) {
+            this.deadlineTick = deadlineTick;
+            this.payload = payload;
+        }
+
+        public long deadlineTick() {
+            return deadlineTick;
+        }
+
+        public T payload() {
+            return payload;
+        }
+    }
+
+    /**
+     * Doubly-linked list of the timers in one slot
+     */
+    private static final class Bucket<T> {
+        private Timer<T> head;
+
+        void link(Timer<T> timer) {
+            timer.bucket = this;
+            timer.prev = null;
+            timer.next = head;
+            if (head != null) {
+                head.prev = timer;
+            }
+            head = timer;
+        }
+
+        void unlink(Timer<T> timer) {
+            if (timer.prev != null) {
+                timer.prev.next = timer.next;
+            } else {
+                head = timer.next;
+            }
+            if (timer.next != null) {
+                timer.next.prev = timer.prev;
+            }
+            timer.bucket = null;
+            timer.prev = null;
+            timer.next = null;
+        }
+
+        // Detach every timer, returning the head of the detached chain
+        Timer<T> clear() {
+            Timer<T> first = head;
+            for (Timer<T> timer = head; timer != null; timer = timer.next) {
+                timer.bucket = null;
+            }
+            head = null;
+            return first;
+        }
+    }
+}
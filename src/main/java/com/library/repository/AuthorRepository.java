@@ -1,6 +1,7 @@
 package com.library.repository;
 
 import com.library.entity.Author;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -8,6 +9,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -22,6 +24,14 @@ public interface AuthorRepository extends JpaRepository<Author, Long> {
     List<Author> findByNationality(String nationality);
 
     // Find authors by full name (first name + last name)
-    @Query("SELECT a FROM Author a WHERE CONCAT(a.firstName, ' ', a.lastName) = :fullName")
+    @Query("SELECT a FROM Author a WHERE TRIM(CONCAT(a.firstName, ' ', a.lastName)) = :fullName")
     List<Author> findByFullName(@Param("fullName") String fullName);
+
+    // Find authors by any of the given full names (first name + last name); trimmed, since a single-word name
+    // has an empty last name and NO PAD collations would not match the trailing space
+    @Query("SELECT a FROM Author a WHERE TRIM(CONCAT(a.firstName, ' ', a.lastName)) IN :fullNames")
+    List<Author> findByFullNameIn(@Param("fullNames") Collection<String> fullNames);
+
+    // Keyset page of authors in id order
+    List<Author> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
@@ -1,15 +1,22 @@
 package com.library.repository;
 
 import com.library.entity.Book;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
@@ -24,4 +31,80 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     @Query("SELECT b FROM Book b WHERE b.availableCopies > 0")
     Page<Book> findAvailableBooks(Pageable pageable);
 
+    // Page of book ids only; the books themselves are then loaded with their relations by id
+    @Query(value = "SELECT b.id FROM Book b", countQuery = "SELECT COUNT(b) FROM Book b")
+    Page<Long> findPageOfIds(Pageable pageable);
+
+    // Books with their authors and publisher initialised
+    @Query("SELECT DISTINCT b FROM Book b LEFT JOIN FETCH b.authors LEFT JOIN FETCH b.publisher WHERE b.id IN :ids")
+    List<Book> findWithAuthorsAndPublisherByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Books with their categories initialised (kept apart from authors to avoid a cartesian product)
+    @Query("SELECT DISTINCT b FROM Book b LEFT JOIN FETCH b.categories WHERE b.id IN :ids")
+    List<Book> findWithCategoriesByIdIn(@Param("ids") Collection<Long> ids);
+
+    // ISBNs of the given set that are already in the catalog
+    @Query("SELECT b.isbn FROM Book b WHERE b.isbn IN :isbns")
+    Set<String> findExistingIsbns(@Param("isbns") Collection<String> isbns);
+
+    // Atomically add (or remove, with a negative change) available copies, keeping them within [0, totalCopies].
+    // Returns 0 when the guard fails, e.g. when the last copy was taken concurrently.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies + :change, b.updatedAt = :now, " +
+            "b.version = b.version + 1 " +
+            "WHERE b.id = :id AND b.availableCopies + :change >= 0 AND b.availableCopies + :change <= b.totalCopies")
+    int adjustAvailableCopies(@Param("id") Long id, @Param("change") int change, @Param("now") LocalDateTime now);
+
+    // Lock the given books in id order, so concurrent batch checkouts cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM Book b WHERE b.id IN :ids ORDER BY b.id")
+    List<Book> findAllByIdForUpdate(@Param("ids") Collection<Long> ids);
+
+    // Take one copy of each given book in a single statement
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Book b SET b.availableCopies = b.availableCopies - 1, b.updatedAt = :now, " +
+            "b.version = b.version + 1 " +
+            "WHERE b.id IN :ids AND b.availableCopies > 0")
+    int claimOneCopyEach(@Param("ids") Collection<Long> ids, @Param("now") LocalDateTime now);
+
+    // Atomically write off one copy (e.g. lost by a member) without touching the available count
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Book b SET b.totalCopies = b.totalCopies - 1, b.updatedAt = :now, " +
+            "b.version = b.version + 1 " +
+            "WHERE b.id = :id AND b.totalCopies > b.availableCopies")
+    int removeLostCopy(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    // Last modification of a book, read without hydrating the entity (for ETags)
+    @Query("SELECT b.id AS id, b.updatedAt AS updatedAt FROM Book b WHERE b.id = :id")
+    Optional<BookVersion> findVersionById(@Param("id") Long id);
+
+    interface BookVersion {
+        Long getId();
+
+        LocalDateTime getUpdatedAt();
+    }
+
+    // Current available copies for a batch of books: [bookId, availableCopies]
+    @Query("SELECT b.id, b.availableCopies FROM Book b WHERE b.id IN :bookIds")
+    List<Object[]> findAvailableCopiesByIds(@Param("bookIds") Collection<Long> bookIds);
+
+    // Keyset scan over the catalog in id order (cursor pagination and in-memory index loading)
+    List<Book> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
+
+    // Ids of the books written by an author
+    @Query("SELECT b.id FROM Book b JOIN b.authors a WHERE a.id = :authorId")
+    List<Long> findIdsByAuthorId(@Param("authorId") Long authorId);
+
+    // Author names for a batch of books: [bookId, firstName, lastName]
+    @Query("SELECT b.id, a.firstName, a.lastName FROM Book b JOIN b.authors a WHERE b.id IN :bookIds")
+    List<Object[]> findAuthorNamesByBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    // Categories for a batch of books: [bookId, categoryId, categoryName]
+    @Query("SELECT b.id, c.id, c.name FROM Book b JOIN b.categories c WHERE b.id IN :bookIds")
+    List<Object[]> findCategoriesByBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    // Publishers for a batch of books: [bookId, publisherId, publisherName]
+    @Query("SELECT b.id, p.id, p.name FROM Book b JOIN b.publisher p WHERE b.id IN :bookIds")
+    List<Object[]> findPublishersByBookIds(@Param("bookIds") Collection<Long> bookIds);
+
 }
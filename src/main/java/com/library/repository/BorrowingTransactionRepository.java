@@ -3,14 +3,17 @@ package com.library.repository;
 import com.library.entity.Book;
 import com.library.entity.BorrowingTransaction;
 import com.library.entity.Member;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -25,12 +28,57 @@ public interface BorrowingTransactionRepository extends JpaRepository<BorrowingT
     // Find transactions by member and status
     List<BorrowingTransaction> findByMemberAndStatus(Member member, BorrowingTransaction.TransactionStatus status);
 
-    // Count active borrowings for a member
-    @Query("SELECT COUNT(b) FROM BorrowingTransaction b WHERE b.member = :member AND b.status = 'BORROWED'")
+    // Count active (open) borrowings for a member
+    @Query("SELECT COUNT(b) FROM BorrowingTransaction b WHERE b.member = :member " +
+            "AND b.status IN ('BORROWED', 'OVERDUE') AND b.returnDate IS NULL")
     Long countActiveBorrowingsByMember(@Param("member") Member member);
 
-    // Find overdue transactions
-    @Query("SELECT b FROM BorrowingTransaction b WHERE b.dueDate < :currentDate AND b.status = 'BORROWED'")
-    List<BorrowingTransaction> findOverdueTransactions(@Param("currentDate") LocalDate currentDate);
+    // Open loans of a member, borrowed or overdue
+    @Query("SELECT b FROM BorrowingTransaction b WHERE b.member = :member " +
+            "AND b.status IN ('BORROWED', 'OVERDUE') AND b.returnDate IS NULL")
+    List<BorrowingTransaction> findOpenByMember(@Param("member") Member member);
+
+    // Loan count, open loan count and fines of a member per status: [status, count, open, fines]
+    @Query("SELECT b.status, COUNT(b), SUM(CASE WHEN b.returnDate IS NULL THEN 1 ELSE 0 END), SUM(b.fineAmount) " +
+            "FROM BorrowingTransaction b WHERE b.member.id = :memberId GROUP BY b.status")
+    List<Object[]> summarizeByStatus(@Param("memberId") Long memberId);
+
+    // The same per member for an id window of members: [member id, status, count, open, fines]
+    @Query("SELECT b.member.id, b.status, COUNT(b), SUM(CASE WHEN b.returnDate IS NULL THEN 1 ELSE 0 END), " +
+            "SUM(b.fineAmount) FROM BorrowingTransaction b " +
+            "WHERE b.member.id > :after AND b.member.id <= :upTo GROUP BY b.member.id, b.status")
+    List<Object[]> summarizeByMemberAndStatus(@Param("after") Long after, @Param("upTo") Long upTo);
+
+    // Borrowed loans past their due date, oldest first: [id, member id]
+    @Query("SELECT b.id, b.member.id FROM BorrowingTransaction b WHERE b.status = 'BORROWED' " +
+            "AND b.returnDate IS NULL AND b.dueDate < :today ORDER BY b.dueDate, b.id")
+    List<Object[]> findDueBefore(@Param("today") LocalDate today, Limit limit);
+
+    // Flag loans as overdue, skipping any that changed state since they were read
+    @Modifying
+    @Query("UPDATE BorrowingTransaction b SET b.status = :overdue, b.version = b.version + 1 " +
+            "WHERE b.id IN :ids AND b.status = :borrowed")
+    int markOverdue(@Param("ids") Collection<Long> ids,
+                    @Param("borrowed") BorrowingTransaction.TransactionStatus borrowed,
+                    @Param("overdue") BorrowingTransaction.TransactionStatus overdue);
+
+    // First page of the overdue loans still out, in due date order
+    @Query("SELECT b FROM BorrowingTransaction b WHERE b.status = 'OVERDUE' AND b.returnDate IS NULL " +
+            "ORDER BY b.dueDate, b.id")
+    List<BorrowingTransaction> findOverdue(Limit limit);
+
+    // Keyset page of the overdue loans still out, after the given (due date, id) position
+    @Query("SELECT b FROM BorrowingTransaction b WHERE b.status = 'OVERDUE' AND b.returnDate IS NULL " +
+            "AND (b.dueDate > :dueDate OR (b.dueDate = :dueDate AND b.id > :id)) ORDER BY b.dueDate, b.id")
+    List<BorrowingTransaction> findOverdueAfter(@Param("dueDate") LocalDate dueDate, @Param("id") Long id,
+                                                Limit limit);
+
+    // Open loans of the given books, oldest due date first
+    @Query("SELECT b FROM BorrowingTransaction b WHERE b.book.id IN :bookIds " +
+            "AND b.status IN ('BORROWED', 'OVERDUE') AND b.returnDate IS NULL ORDER BY b.dueDate, b.id")
+    List<BorrowingTransaction> findOpenByBookIds(@Param("bookIds") Collection<Long> bookIds);
+
+    // Keyset page of transactions in id order
+    List<BorrowingTransaction> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 
 }
@@ -1,10 +1,14 @@
 package com.library.repository;
 
 import com.library.entity.Category;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -12,8 +16,12 @@ import java.util.Optional;
 public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     // Find a category by exact name
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<Category> findByName(String name);
 
+    // Find categories by exact names
+    List<Category> findByNameIn(Collection<String> names);
+
     // Check if a category exists with the given name
     boolean existsByName(String name);
 
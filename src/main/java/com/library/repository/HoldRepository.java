@@ -0,0 +1,45 @@
+package com.library.repository;
+
+import com.library.entity.Hold;
+import com.library.entity.Hold.HoldStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+
+    // Holds of a member, newest first
+    List<Hold> findByMemberIdOrderByIdDesc(Long memberId);
+
+    // Whether the member already waits for (or has a copy set aside of) the book
+    boolean existsByBookIdAndMemberIdAndStatusIn(Long bookId, Long memberId, Collection<HoldStatus> statuses);
+
+    // Live holds in queue order, used to rebuild the in-memory queues: [hold id, book id, member id, status]
+    @Query("SELECT h.id, h.book.id, h.member.id, h.status FROM Hold h WHERE h.status IN :statuses ORDER BY h.id")
+    List<Object[]> findLive(@Param("statuses") Collection<HoldStatus> statuses);
+
+    // Set a copy aside for a waiting hold; 0 when the hold is no longer waiting
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Hold h SET h.status = :ready, h.readyAt = :now WHERE h.id = :id AND h.status = :waiting")
+    int markReady(@Param("id") Long id, @Param("waiting") HoldStatus waiting, @Param("ready") HoldStatus ready,
+                  @Param("now") LocalDateTime now);
+
+    // Ready holds whose copy has been set aside since before the cutoff, oldest first: [hold id]
+    @Query("SELECT h.id FROM Hold h WHERE h.status = 'READY' AND h.readyAt < :cutoff ORDER BY h.readyAt, h.id")
+    List<Long> findReadyBefore(@Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    // Close a hold (fulfilled, cancelled or expired), only if it is still in the expected state;
+    // clearing the live key lets the member place a new hold on the book
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Hold h SET h.status = :to, h.closedAt = :now, h.liveKey = NULL WHERE h.id = :id AND h.status = :from")
+    int close(@Param("id") Long id, @Param("from") HoldStatus from, @Param("to") HoldStatus to,
+              @Param("now") LocalDateTime now);
+}
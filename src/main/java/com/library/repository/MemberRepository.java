@@ -2,9 +2,13 @@ package com.library.repository;
 
 import com.library.entity.Member;
 import com.library.entity.Member.MembershipStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -43,4 +47,46 @@ public interface MemberRepository extends JpaRepository<Member, Long> {
     
     // Find members by status with pagination
     Page<Member> findByStatus(MembershipStatus status, Pageable pageable);
+
+    // Take loan slots for an eligible member, only while the borrowing limit is respected.
+    // Returns 0 when the member is missing, not eligible or would go over the limit.
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Member m SET m.activeLoanCount = m.activeLoanCount + :loans, m.totalLoans = m.totalLoans + :loans " +
+            "WHERE m.id = :id AND m.activeLoanCount + :loans <= :limit " +
+            "AND m.status = 'ACTIVE' AND m.membershipExpiry > :today")
+    int reserveLoans(@Param("id") Long id, @Param("loans") int loans, @Param("limit") int limit,
+                     @Param("today") LocalDate today);
+
+    // Apply the effect of loans changing state; the active counter never goes below zero
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Member m SET " +
+            "m.activeLoanCount = CASE WHEN m.activeLoanCount >= :closed THEN m.activeLoanCount - :closed ELSE 0 END, " +
+            "m.returnedLoans = m.returnedLoans + :returned, m.overdueLoans = m.overdueLoans + :overdue, " +
+            "m.lostLoans = m.lostLoans + :lost, m.totalFines = m.totalFines + :fines " +
+            "WHERE m.id = :id")
+    int recordLoanChanges(@Param("id") Long id, @Param("closed") int closed, @Param("returned") int returned,
+                          @Param("overdue") int overdue, @Param("lost") int lost, @Param("fines") double fines);
+
+    // Overwrite the borrowing totals of a member with values rebuilt from the transactions table
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE Member m SET m.activeLoanCount = :active, m.totalLoans = :total, m.returnedLoans = :returned, " +
+            "m.overdueLoans = :overdue, m.lostLoans = :lost, m.totalFines = :fines WHERE m.id = :id")
+    int overwriteBorrowingStats(@Param("id") Long id, @Param("active") int active, @Param("total") long total,
+                                @Param("returned") long returned, @Param("overdue") long overdue,
+                                @Param("lost") long lost, @Param("fines") double fines);
+
+    // Lock a member row, e.g. while its totals are rebuilt
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM Member m WHERE m.id = :id")
+    Optional<Member> findByIdForUpdate(@Param("id") Long id);
+
+    // Members of an id window, in id order
+    @Query("SELECT m FROM Member m WHERE m.id > :after AND m.id <= :upTo ORDER BY m.id")
+    List<Member> findIdWindow(@Param("after") Long after, @Param("upTo") Long upTo);
+
+    @Query("SELECT MAX(m.id) FROM Member m")
+    Long findMaxId();
+
+    // Keyset page of members in id order
+    List<Member> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
@@ -1,17 +1,24 @@
 package com.library.repository;
 
 import com.library.entity.Publisher;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface PublisherRepository extends JpaRepository<Publisher, Long> {
 
     // Find a publisher by exact name
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<Publisher> findByName(String name);
 
     // Check if a publisher exists with the given name
@@ -19,4 +26,10 @@ public interface PublisherRepository extends JpaRepository<Publisher, Long> {
 
     // Search publishers by name (case-insensitive, partial match)
     Page<Publisher> findByNameContainingIgnoreCase(String name, Pageable pageable);
+
+    // Find publishers by exact names
+    List<Publisher> findByNameIn(Collection<String> names);
+
+    // Keyset page of publishers in id order
+    List<Publisher> findByIdGreaterThanOrderByIdAsc(Long id, Limit limit);
 }
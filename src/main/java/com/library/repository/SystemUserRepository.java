@@ -1,7 +1,10 @@
 package com.library.repository;
 
 import com.library.entity.SystemUser;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,6 +13,7 @@ import java.util.Optional;
 @Repository
 public interface SystemUserRepository extends JpaRepository<SystemUser, Long> {
 
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"))
     Optional<SystemUser> findByUsername(String username);
 
     List<SystemUser> findByActiveTrue();
@@ -0,0 +1,147 @@
+package com.library.search;
+
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Compressed bitset of the ids of books that currently have at least one available copy.
+ * Lets /api/books/available page in id order without scanning the books table.
+ */
+@Component
+public class BookAvailabilityIndex {
+
+    private final RoaringBitmap availableBooks = new RoaringBitmap();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Books whose copy count changed through an atomic SQL update and must be re-read
+    private final Set<Long> staleBooks = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Record whether a book has copies on the shelf
+     */
+    public void update(Long bookId, boolean available) {
+        int id = Math.toIntExact(bookId);
+        lock.writeLock().lock();
+        try {
+            if (available) {
+                availableBooks.add(id);
+            } else {
+                availableBooks.remove(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Flag a book whose available copies changed without the new value being known in memory
+     */
+    public void markStale(Long bookId) {
+        staleBooks.add(bookId);
+    }
+
+    /**
+     * Take every book flagged as stale since the previous call
+     */
+    public List<Long> drainStale() {
+        List<Long> drained = new ArrayList<>();
+        for (Long bookId : staleBooks) {
+            if (staleBooks.remove(bookId)) {
+                drained.add(bookId);
+            }
+        }
+        return drained;
+    }
+
+    /**
+     * Forget a deleted book
+     */
+    public void remove(Long bookId) {
+        update(bookId, false);
+    }
+
+    /**
+     * Drop every entry
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            availableBooks.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isAvailable(int bookId) {
+        lock.readLock().lock();
+        try {
+            return availableBooks.contains(bookId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of books with at least one available copy
+     */
+    public int count() {
+        lock.readLock().lock();
+        try {
+            return availableBooks.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Keep only the available books of the given set (modifies the argument)
+     */
+    public void retainAvailable(RoaringBitmap bookIds) {
+        lock.readLock().lock();
+        try {
+            bookIds.and(availableBooks);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Number of available books in the given set
+     */
+    public int countAvailable(RoaringBitmap bookIds) {
+        lock.readLock().lock();
+        try {
+            return RoaringBitmap.andCardinality(bookIds, availableBooks);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of available books for the requested window, in ascending id order
+     */
+    public List<Long> page(int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            List<Long> page = new ArrayList<>(limit);
+            if (offset >= availableBooks.getCardinality()) {
+                return page;
+            }
+            PeekableIntIterator iterator = availableBooks.getIntIterator();
+            iterator.advanceIfNeeded(availableBooks.select(offset));
+            while (iterator.hasNext() && page.size() < limit) {
+                page.add((long) iterator.next());
+            }
+            return page;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.library.search;
+
+import com.library.entity.Author;
+import com.library.entity.Book;
+import com.library.entity.Category;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flattened view of a book as seen by the in-memory catalog indexes
+ */
+public record BookDocument(
+        Long id,
+        String title,
+        String summary,
+        String isbn,
+        List<String> authorNames,
+        Long publisherId,
+        String publisherName,
+        Map<Long, String> categories,
+        Integer publicationYear,
+        String language,
+        boolean available
+) {
+
+    /**
+     * Build a document from a managed book (touches the lazy author, publisher and category associations)
+     */
+    public static BookDocument from(Book book) {
+        List<String> authorNames = book.getAuthors() == null ? List.of() :
+                book.getAuthors().stream().map(Author::getFullName).toList();
+
+        Map<Long, String> categories = new LinkedHashMap<>();
+        if (book.getCategories() != null) {
+            for (Category category : book.getCategories()) {
+                categories.put(category.getId(), category.getName());
+            }
+        }
+
+        return new BookDocument(
+                book.getId(),
+                book.getTitle(),
+                book.getSummary(),
+                book.getIsbn(),
+                authorNames,
+                book.getPublisher() != null ? book.getPublisher().getId() : null,
+                book.getPublisher() != null ? book.getPublisher().getName() : null,
+                categories,
+                book.getPublicationYear(),
+                book.getLanguage(),
+                book.getAvailableCopies() != null && book.getAvailableCopies() > 0
+        );
+    }
+}
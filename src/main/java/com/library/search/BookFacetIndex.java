@@ -0,0 +1,452 @@
+package com.library.search;
+
+import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Per-facet compressed bitmaps of book ids (category, publisher, publication year, language
+ * and author name tokens). Multi-filter queries are answered by intersecting bitmaps in memory,
+ * and facet counts are computed over the intersected result. Availability comes from the live
+ * {@link BookAvailabilityIndex}.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookFacetIndex {
+
+    public static final String CATEGORY = "category";
+    public static final String PUBLISHER = "publisher";
+    public static final String YEAR = "year";
+    public static final String LANGUAGE = "language";
+    public static final String AVAILABILITY = "availability";
+
+    private static final String AVAILABLE = "available";
+    private static final String UNAVAILABLE = "unavailable";
+
+    // Maximum number of values returned per facet
+    private static final int MAX_FACET_VALUES = 20;
+
+    // Below this result size, counting per document is cheaper than intersecting every facet bitmap
+    private static final int PER_DOCUMENT_COUNT_THRESHOLD = 4096;
+
+    private final BookSearchIndex bookSearchIndex;
+    private final BookAvailabilityIndex bookAvailabilityIndex;
+
+    private final RoaringBitmap allBooks = new RoaringBitmap();
+    private final Map<Long, RoaringBitmap> byCategory = new HashMap<>();
+    private final Map<Long, String> categoryNames = new HashMap<>();
+    private final Map<Long, RoaringBitmap> byPublisher = new HashMap<>();
+    private final Map<Long, String> publisherNames = new HashMap<>();
+    private final Map<Integer, RoaringBitmap> byYear = new HashMap<>();
+    private final Map<String, RoaringBitmap> byLanguage = new HashMap<>();
+    private final Map<String, String> languageLabels = new HashMap<>();
+    private final Map<String, RoaringBitmap> byAuthorToken = new HashMap<>();
+    private final Map<Integer, FacetValues> documents = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Add or replace a book in every facet
+     */
+    public void index(BookDocument document) {
+        int bookId = Math.toIntExact(document.id());
+        FacetValues values = FacetValues.of(document);
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(bookId);
+
+            allBooks.add(bookId);
+            for (long categoryId : values.categoryIds) {
+                byCategory.computeIfAbsent(categoryId, id -> new RoaringBitmap()).add(bookId);
+            }
+            if (document.categories() != null) {
+                categoryNames.putAll(document.categories());
+            }
+            if (values.publisherId != null) {
+                byPublisher.computeIfAbsent(values.publisherId, id -> new RoaringBitmap()).add(bookId);
+                publisherNames.put(values.publisherId, document.publisherName());
+            }
+            if (values.year != null) {
+                byYear.computeIfAbsent(values.year, year -> new RoaringBitmap()).add(bookId);
+            }
+            if (values.language != null) {
+                byLanguage.computeIfAbsent(values.language, language -> new RoaringBitmap()).add(bookId);
+                languageLabels.putIfAbsent(values.language, document.language().trim());
+            }
+            for (String token : values.authorTokens) {
+                byAuthorToken.computeIfAbsent(token, t -> new RoaringBitmap()).add(bookId);
+            }
+            documents.put(bookId, values);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a book from every facet
+     */
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(Math.toIntExact(bookId));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Show a renamed category under its new name; no-op for a category no indexed book uses
+     */
+    public void renameCategory(Long categoryId, String name) {
+        lock.writeLock().lock();
+        try {
+            categoryNames.replace(categoryId, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forget a deleted category
+     */
+    public void removeCategory(Long categoryId) {
+        lock.writeLock().lock();
+        try {
+            categoryNames.remove(categoryId);
+            byCategory.remove(categoryId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Show a renamed publisher under its new name; no-op for a publisher no indexed book uses
+     */
+    public void renamePublisher(Long publisherId, String name) {
+        lock.writeLock().lock();
+        try {
+            publisherNames.replace(publisherId, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Forget a deleted publisher
+     */
+    public void removePublisher(Long publisherId) {
+        lock.writeLock().lock();
+        try {
+            publisherNames.remove(publisherId);
+            byPublisher.remove(publisherId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop every indexed book
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            allBooks.clear();
+            byCategory.clear();
+            categoryNames.clear();
+            byPublisher.clear();
+            publisherNames.clear();
+            byYear.clear();
+            byLanguage.clear();
+            languageLabels.clear();
+            byAuthorToken.clear();
+            documents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Filter the catalog, return the requested window of book ids and the facet counts of the whole result.
+     * Results are ranked by relevance when a title query is given, otherwise ordered by book id.
+     */
+    public FacetedHits search(FacetQuery query, int offset, int limit) {
+        Map<Long, Double> scores = null;
+        RoaringBitmap titleMatches = null;
+        if (hasText(query.title())) {
+            scores = bookSearchIndex.score(query.title());
+            titleMatches = new RoaringBitmap();
+            for (Long bookId : scores.keySet()) {
+                titleMatches.add(Math.toIntExact(bookId));
+            }
+        }
+
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = allBooks.clone();
+            if (titleMatches != null) {
+                result.and(titleMatches);
+            }
+            if (hasText(query.author())) {
+                result.and(authorMatches(query.author()));
+            }
+            if (hasText(query.category())) {
+                result.and(namedMatches(byCategory, categoryNames, query.category()));
+            }
+            if (hasText(query.publisher())) {
+                result.and(namedMatches(byPublisher, publisherNames, query.publisher()));
+            }
+            if (query.year() != null) {
+                result.and(byYear.getOrDefault(query.year(), new RoaringBitmap()));
+            }
+            if (hasText(query.language())) {
+                result.and(byLanguage.getOrDefault(normalize(query.language()), new RoaringBitmap()));
+            }
+            if (query.availableOnly()) {
+                bookAvailabilityIndex.retainAvailable(result);
+            }
+
+            int total = result.getCardinality();
+            List<Long> page = scores != null
+                    ? rankedWindow(result, scores, offset, limit)
+                    : idWindow(result, offset, limit);
+            return new FacetedHits(total, page, facetCounts(result));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private RoaringBitmap authorMatches(String author) {
+        List<String> tokens = BookSearchIndex.tokenize(author);
+        if (tokens.isEmpty()) {
+            return allBooks.clone();
+        }
+        RoaringBitmap matches = null;
+        for (String token : tokens) {
+            RoaringBitmap bitmap = byAuthorToken.get(token);
+            if (bitmap == null) {
+                return new RoaringBitmap();
+            }
+            if (matches == null) {
+                matches = bitmap.clone();
+            } else {
+                matches.and(bitmap);
+            }
+        }
+        return matches;
+    }
+
+    private static RoaringBitmap namedMatches(Map<Long, RoaringBitmap> bitmaps, Map<Long, String> names, String name) {
+        RoaringBitmap matches = new RoaringBitmap();
+        for (Map.Entry<Long, String> entry : names.entrySet()) {
+            RoaringBitmap bitmap = bitmaps.get(entry.getKey());
+            if (bitmap != null && entry.getValue() != null && entry.getValue().equalsIgnoreCase(name.trim())) {
+                matches.or(bitmap);
+            }
+        }
+        return matches;
+    }
+
+    private static List<Long> idWindow(RoaringBitmap result, int offset, int limit) {
+        List<Long> page = new ArrayList<>(Math.max(0, Math.min(limit, result.getCardinality() - offset)));
+        if (offset >= result.getCardinality()) {
+            return page;
+        }
+        PeekableIntIterator iterator = result.getIntIterator();
+        iterator.advanceIfNeeded(result.select(offset));
+        while (iterator.hasNext() && page.size() < limit) {
+            page.add((long) iterator.next());
+        }
+        return page;
+    }
+
+    private static List<Long> rankedWindow(RoaringBitmap result, Map<Long, Double> scores, int offset, int limit) {
+        int wanted = offset + limit;
+        Comparator<Map.Entry<Long, Double>> byScore = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.<Long, Double>comparingByKey().reversed());
+        PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(byScore);
+        result.forEach((int bookId) -> {
+            Map.Entry<Long, Double> entry = Map.entry((long) bookId, scores.get((long) bookId));
+            if (top.size() < wanted) {
+                top.add(entry);
+            } else if (byScore.compare(entry, top.peek()) > 0) {
+                top.poll();
+                top.add(entry);
+            }
+        });
+
+        List<Long> ranked = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ranked.add(top.poll().getKey());
+        }
+        Collections.reverse(ranked);
+        return offset >= ranked.size() ? List.of() : ranked.subList(offset, ranked.size());
+    }
+
+    private Map<String, List<FacetCount>> facetCounts(RoaringBitmap result) {
+        Map<String, List<FacetCount>> facets = new LinkedHashMap<>();
+        if (result.getCardinality() <= PER_DOCUMENT_COUNT_THRESHOLD) {
+            Map<String, Long> categories = new HashMap<>();
+            Map<String, Long> publishers = new HashMap<>();
+            Map<String, Long> years = new HashMap<>();
+            Map<String, Long> languages = new HashMap<>();
+            Map<String, Long> availability = new HashMap<>();
+            result.forEach((int bookId) -> {
+                FacetValues values = documents.get(bookId);
+                for (long categoryId : values.categoryIds) {
+                    categories.merge(categoryNames.get(categoryId), 1L, Long::sum);
+                }
+                if (values.publisherId != null) {
+                    publishers.merge(publisherNames.get(values.publisherId), 1L, Long::sum);
+                }
+                if (values.year != null) {
+                    years.merge(values.year.toString(), 1L, Long::sum);
+                }
+                if (values.language != null) {
+                    languages.merge(languageLabels.get(values.language), 1L, Long::sum);
+                }
+                availability.merge(bookAvailabilityIndex.isAvailable(bookId) ? AVAILABLE : UNAVAILABLE, 1L, Long::sum);
+            });
+            facets.put(CATEGORY, topValues(categories));
+            facets.put(PUBLISHER, topValues(publishers));
+            facets.put(YEAR, topValues(years));
+            facets.put(LANGUAGE, topValues(languages));
+            facets.put(AVAILABILITY, topValues(availability));
+        } else {
+            facets.put(CATEGORY, intersectionCounts(result, byCategory, categoryNames::get));
+            facets.put(PUBLISHER, intersectionCounts(result, byPublisher, publisherNames::get));
+            facets.put(YEAR, intersectionCounts(result, byYear, String::valueOf));
+            facets.put(LANGUAGE, intersectionCounts(result, byLanguage, languageLabels::get));
+            long available = bookAvailabilityIndex.countAvailable(result);
+            Map<String, Long> availability = new HashMap<>();
+            availability.put(AVAILABLE, available);
+            availability.put(UNAVAILABLE, result.getCardinality() - available);
+            facets.put(AVAILABILITY, topValues(availability));
+        }
+        return facets;
+    }
+
+    private static <K> List<FacetCount> intersectionCounts(RoaringBitmap result, Map<K, RoaringBitmap> bitmaps,
+                                                           Function<K, String> label) {
+        Map<String, Long> counts = new HashMap<>();
+        for (Map.Entry<K, RoaringBitmap> entry : bitmaps.entrySet()) {
+            int count = RoaringBitmap.andCardinality(result, entry.getValue());
+            if (count > 0) {
+                counts.merge(label.apply(entry.getKey()), (long) count, Long::sum);
+            }
+        }
+        return topValues(counts);
+    }
+
+    private static List<FacetCount> topValues(Map<String, Long> counts) {
+        return counts.entrySet().stream()
+                .filter(entry -> entry.getKey() != null && entry.getValue() > 0)
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(MAX_FACET_VALUES)
+                .map(entry -> new FacetCount(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    private void removeInternal(int bookId) {
+        FacetValues existing = documents.remove(bookId);
+        if (existing == null) {
+            return;
+        }
+        allBooks.remove(bookId);
+        for (long categoryId : existing.categoryIds) {
+            removeFrom(byCategory, categoryId, bookId);
+        }
+        if (existing.publisherId != null) {
+            removeFrom(byPublisher, existing.publisherId, bookId);
+        }
+        if (existing.year != null) {
+            removeFrom(byYear, existing.year, bookId);
+        }
+        if (existing.language != null) {
+            removeFrom(byLanguage, existing.language, bookId);
+        }
+        for (String token : existing.authorTokens) {
+            removeFrom(byAuthorToken, token, bookId);
+        }
+    }
+
+    private static <K> void removeFrom(Map<K, RoaringBitmap> bitmaps, K key, int bookId) {
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(bookId);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    private static String normalize(String value) {
+        return value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Filters accepted by the faceted search
+     */
+    public record FacetQuery(
+            String title,
+            String author,
+            String category,
+            String publisher,
+            Integer year,
+            String language,
+            boolean availableOnly
+    ) {
+    }
+
+    /**
+     * A page of book ids with the total match count and facet counts of the full result
+     */
+    public record FacetedHits(int total, List<Long> bookIds, Map<String, List<FacetCount>> facets) {
+    }
+
+    /**
+     * Facet values stored per book so a book can be removed from its bitmaps
+     */
+    private record FacetValues(
+            long[] categoryIds,
+            Long publisherId,
+            Integer year,
+            String language,
+            String[] authorTokens
+    ) {
+        static FacetValues of(BookDocument document) {
+            long[] categoryIds = document.categories() == null ? new long[0] :
+                    document.categories().keySet().stream().mapToLong(Long::longValue).toArray();
+            List<String> authorTokens = new ArrayList<>();
+            if (document.authorNames() != null) {
+                for (String authorName : document.authorNames()) {
+                    authorTokens.addAll(BookSearchIndex.tokenize(authorName));
+                }
+            }
+            return new FacetValues(
+                    categoryIds,
+                    document.publisherId(),
+                    document.publicationYear(),
+                    hasText(document.language()) ? normalize(document.language()) : null,
+                    authorTokens.stream().distinct().toArray(String[]::new)
+            );
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.library.search;
+
+import com.library.entity.Book;
+import com.library.repository.BookRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds the in-memory catalog indexes from the database once the application has started.
+ * Books are read in id order with a keyset scan so large catalogs load in bounded memory.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookIndexLoader {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final BookRepository bookRepository;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookFacetIndex bookFacetIndex;
+    private final BookAvailabilityIndex bookAvailabilityIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndexes() {
+        long start = System.currentTimeMillis();
+        bookSearchIndex.clear();
+        bookFacetIndex.clear();
+        bookAvailabilityIndex.clear();
+
+        long lastId = 0L;
+        int loaded = 0;
+        List<Book> batch;
+        do {
+            batch = bookRepository.findByIdGreaterThanOrderByIdAsc(lastId, Limit.of(BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+
+            List<Long> bookIds = batch.stream().map(Book::getId).toList();
+            Map<Long, List<String>> authorNames = new HashMap<>();
+            for (Object[] row : bookRepository.findAuthorNamesByBookIds(bookIds)) {
+                authorNames.computeIfAbsent((Long) row[0], id -> new ArrayList<>())
+                        .add(row[1] + " " + row[2]);
+            }
+
+            Map<Long, Map<Long, String>> categories = new HashMap<>();
+            for (Object[] row : bookRepository.findCategoriesByBookIds(bookIds)) {
+                categories.computeIfAbsent((Long) row[0], id -> new LinkedHashMap<>())
+                        .put((Long) row[1], (String) row[2]);
+            }
+            Map<Long, Object[]> publishers = new HashMap<>();
+            for (Object[] row : bookRepository.findPublishersByBookIds(bookIds)) {
+                publishers.put((Long) row[0], row);
+            }
+
+            for (Book book : batch) {
+                Object[] publisher = publishers.get(book.getId());
+                BookDocument document = new BookDocument(
+                        book.getId(),
+                        book.getTitle(),
+                        book.getSummary(),
+                        book.getIsbn(),
+                        authorNames.getOrDefault(book.getId(), List.of()),
+                        publisher != null ? (Long) publisher[1] : null,
+                        publisher != null ? (String) publisher[2] : null,
+                        categories.getOrDefault(book.getId(), Map.of()),
+                        book.getPublicationYear(),
+                        book.getLanguage(),
+                        book.isAvailable()
+                );
+                bookSearchIndex.index(document);
+                bookFacetIndex.index(document);
+                bookAvailabilityIndex.update(document.id(), document.available());
+            }
+
+            loaded += batch.size();
+            lastId = batch.get(batch.size() - 1).getId();
+        } while (batch.size() == BATCH_SIZE);
+
+        log.info("Indexed {} books in {} ms", loaded, System.currentTimeMillis() - start);
+    }
+
+    /**
+     * Re-read the available copies of books changed through atomic SQL updates and fix their availability bits
+     */
+    @Scheduled(fixedDelayString = "${library.index.availability-refresh-ms:1000}")
+    public void refreshAvailability() {
+        List<Long> staleBooks = bookAvailabilityIndex.drainStale();
+        for (int from = 0; from < staleBooks.size(); from += BATCH_SIZE) {
+            List<Long> bookIds = staleBooks.subList(from, Math.min(from + BATCH_SIZE, staleBooks.size()));
+            Set<Long> found = new HashSet<>();
+            for (Object[] row : bookRepository.findAvailableCopiesByIds(bookIds)) {
+                Long bookId = (Long) row[0];
+                Integer availableCopies = (Integer) row[1];
+                bookAvailabilityIndex.update(bookId, availableCopies != null && availableCopies > 0);
+                found.add(bookId);
+            }
+            for (Long bookId : bookIds) {
+                if (!found.contains(bookId)) {
+                    bookAvailabilityIndex.remove(bookId);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package com.library.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory inverted index over book title, summary, ISBN and author names.
+ * Results are ranked with BM25, using per-field boosts folded into the term frequency.
+ * <p>
+ * Every indexing of a book gets a new generation, stamped on its posting entries. Removing or replacing a book
+ * only drops its document; its old entries no longer match the document's generation, so they are skipped when
+ * scoring and swept out of a posting list once they outnumber its live entries.
+ */
+@Component
+public class BookSearchIndex {
+
+    // BM25 tuning parameters
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    // Field boosts applied to term frequencies
+    private static final float TITLE_BOOST = 3.0f;
+    private static final float ISBN_BOOST = 3.0f;
+    private static final float AUTHOR_BOOST = 2.0f;
+    private static final float SUMMARY_BOOST = 1.0f;
+
+    // Prefix expansion of the last query term (search-as-you-type)
+    private static final int MIN_PREFIX_LENGTH = 3;
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+    private static final double PREFIX_WEIGHT = 0.5;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+            "a", "an", "and", "at", "by", "for", "in", "of", "on", "or", "the", "to", "with");
+
+    private final NavigableMap<String, PostingList> postings = new TreeMap<>();
+    private final Map<Long, IndexedDocument> documents = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private double totalLength;
+    private int nextGeneration;
+
+    /**
+     * Add or replace a book in the index
+     */
+    public void index(BookDocument document) {
+        Map<String, Float> termWeights = analyze(document);
+        float length = 0;
+        for (float weight : termWeights.values()) {
+            length += weight;
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeInternal(document.id());
+            int generation = nextGeneration++;
+            for (Map.Entry<String, Float> entry : termWeights.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new PostingList())
+                        .add(document.id(), generation, entry.getValue());
+            }
+            documents.put(document.id(),
+                    new IndexedDocument(termWeights.keySet().toArray(new String[0]), length, generation));
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a book from the index
+     */
+    public void remove(Long bookId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(bookId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop every indexed book
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+            totalLength = 0;
+            nextGeneration = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Number of indexed books
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Run a ranked query and return the requested window of book ids, best match first
+     */
+    public SearchHits search(String query, int offset, int limit) {
+        Map<Long, Double> scores = score(query);
+        if (scores.isEmpty() || offset >= scores.size()) {
+            return new SearchHits(scores.size(), Collections.emptyList());
+        }
+
+        int wanted = Math.min(scores.size(), offset + limit);
+        PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(wanted, BookSearchIndex::compareHits);
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            if (top.size() < wanted) {
+                top.add(entry);
+            } else if (compareHits(entry, top.peek()) > 0) {
+                top.poll();
+                top.add(entry);
+            }
+        }
+
+        List<Long> ranked = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ranked.add(top.poll().getKey());
+        }
+        Collections.reverse(ranked);
+        return new SearchHits(scores.size(), ranked.subList(offset, ranked.size()));
+    }
+
+    /**
+     * Compute BM25 scores for every book matching at least one query term
+     */
+    public Map<Long, Double> score(String query) {
+        Map<String, Double> queryTerms = queryTerms(query);
+        Map<Long, Double> scores = new HashMap<>();
+        if (queryTerms.isEmpty()) {
+            return scores;
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return scores;
+            }
+            double averageLength = totalLength / documentCount;
+
+            for (Map.Entry<String, Double> queryTerm : queryTerms.entrySet()) {
+                PostingList postingList = postings.get(queryTerm.getKey());
+                if (postingList == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - postingList.live + 0.5) / (postingList.live + 0.5));
+                for (int i = 0; i < postingList.size; i++) {
+                    long bookId = postingList.bookIds[i];
+                    IndexedDocument document = documents.get(bookId);
+                    if (document == null || document.generation != postingList.generations[i]) {
+                        continue;
+                    }
+                    double tf = postingList.weights[i];
+                    double length = document.length;
+                    double termScore = idf * (tf * (K1 + 1)) / (tf + K1 * (1 - B + B * length / averageLength));
+                    scores.merge(bookId, termScore * queryTerm.getValue(), Double::sum);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return scores;
+    }
+
+    /**
+     * Resolve query tokens to index terms with their query weight.
+     * The last token is also expanded as a prefix so partial words still match.
+     */
+    private Map<String, Double> queryTerms(String query) {
+        Map<String, Double> terms = new LinkedHashMap<>();
+        if (query == null || query.isBlank()) {
+            return terms;
+        }
+
+        List<String> tokens = tokenize(query);
+        for (String token : tokens) {
+            terms.put(token, 1.0);
+        }
+        String isbn = normalizeIsbn(query);
+        if (isbn != null) {
+            terms.put(isbn, 1.0);
+        }
+
+        if (!tokens.isEmpty()) {
+            String last = tokens.get(tokens.size() - 1);
+            if (last.length() >= MIN_PREFIX_LENGTH) {
+                lock.readLock().lock();
+                try {
+                    int expansions = 0;
+                    for (String term : postings.subMap(last, false, last + Character.MAX_VALUE, false).keySet()) {
+                        if (expansions++ >= MAX_PREFIX_EXPANSIONS) {
+                            break;
+                        }
+                        terms.putIfAbsent(term, PREFIX_WEIGHT);
+                    }
+                } finally {
+                    lock.readLock().unlock();
+                }
+            }
+        }
+        return terms;
+    }
+
+    private void removeInternal(Long bookId) {
+        IndexedDocument existing = documents.remove(bookId);
+        if (existing == null) {
+            return;
+        }
+        for (String term : existing.terms) {
+            PostingList postingList = postings.get(term);
+            if (postingList == null) {
+                continue;
+            }
+            postingList.live--;
+            if (postingList.live == 0) {
+                postings.remove(term);
+            } else if (postingList.size - postingList.live > postingList.live) {
+                postingList.compact(documents);
+            }
+        }
+        totalLength -= existing.length;
+    }
+
+    /**
+     * Turn a document into weighted term frequencies across all indexed fields
+     */
+    private static Map<String, Float> analyze(BookDocument document) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, document.title(), TITLE_BOOST);
+        addField(weights, document.summary(), SUMMARY_BOOST);
+        if (document.authorNames() != null) {
+            for (String authorName : document.authorNames()) {
+                addField(weights, authorName, AUTHOR_BOOST);
+            }
+        }
+        String isbn = normalizeIsbn(document.isbn());
+        if (isbn != null) {
+            weights.merge(isbn, ISBN_BOOST, Float::sum);
+        }
+        return weights;
+    }
+
+    private static void addField(Map<String, Float> weights, String text, float boost) {
+        for (String token : tokenize(text)) {
+            weights.merge(token, boost, Float::sum);
+        }
+    }
+
+    /**
+     * Lower-case, split on anything that is not a letter or digit and drop stop words
+     */
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(c);
+            } else if (!current.isEmpty()) {
+                addToken(tokens, current);
+            }
+        }
+        addToken(tokens, current);
+        return tokens;
+    }
+
+    private static void addToken(List<String> tokens, StringBuilder current) {
+        if (!current.isEmpty()) {
+            String token = current.toString();
+            if (!STOP_WORDS.contains(token)) {
+                tokens.add(token);
+            }
+            current.setLength(0);
+        }
+    }
+
+    /**
+     * Strip separators from an ISBN-10/13 so "978-0-13-468599-1" and "9780134685991" match
+     */
+    static String normalizeIsbn(String value) {
+        if (value == null) {
+            return null;
+        }
+        String compact = value.replaceAll("[\\s-]", "").toLowerCase(Locale.ROOT);
+        return compact.matches("\\d{9}[\\dx]|\\d{13}") ? compact : null;
+    }
+
+    private static int compareHits(Map.Entry<Long, Double> a, Map.Entry<Long, Double> b) {
+        int byScore = Double.compare(a.getValue(), b.getValue());
+        // On equal score prefer the lower (older) book id
+        return byScore != 0 ? byScore : Long.compare(b.getKey(), a.getKey());
+    }
+
+    /**
+     * A page of ranked book ids together with the total number of matches
+     */
+    public record SearchHits(int total, List<Long> bookIds) {
+    }
+
+    private record IndexedDocument(String[] terms, float length, int generation) {
+    }
+
+    /**
+     * Unordered, append-only posting list backed by parallel primitive arrays.
+     * {@code size} counts every entry, {@code live} only those still matching their document's generation.
+     */
+    private static final class PostingList {
+        private long[] bookIds = new long[4];
+        private int[] generations = new int[4];
+        private float[] weights = new float[4];
+        private int size;
+        private int live;
+
+        void add(long bookId, int generation, float weight) {
+            if (size == bookIds.length) {
+                bookIds = Arrays.copyOf(bookIds, size * 2);
+                generations = Arrays.copyOf(generations, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            bookIds[size] = bookId;
+            generations[size] = generation;
+            weights[size] = weight;
+            size++;
+            live++;
+        }
+
+        /**
+         * Drop the dead entries in one pass; only run once they outnumber the live ones, so the cost is
+         * amortized over the removals that produced them
+         */
+        void compact(Map<Long, IndexedDocument> documents) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                IndexedDocument document = documents.get(bookIds[i]);
+                if (document != null && document.generation == generations[i]) {
+                    bookIds[kept] = bookIds[i];
+                    generations[kept] = generations[i];
+                    weights[kept] = weights[i];
+                    kept++;
+                }
+            }
+            size = kept;
+            live = kept;
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.library.search;
+
+/**
+ * Number of matching books carrying a given facet value
+ */
+public record FacetCount(String value, long count) {
+}
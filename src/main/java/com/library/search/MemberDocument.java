@@ -0,0 +1,27 @@
+package com.library.search;
+
+import com.library.entity.Member;
+
+/**
+ * The fields of a member the in-memory member index looks at
+ */
+public record MemberDocument(
+        Long id,
+        String firstName,
+        String lastName,
+        String email,
+        String phoneNumber,
+        String membershipId
+) {
+
+    public static MemberDocument from(Member member) {
+        return new MemberDocument(
+                member.getId(),
+                member.getFirstName(),
+                member.getLastName(),
+                member.getEmail(),
+                member.getPhoneNumber(),
+                member.getMembershipId()
+        );
+    }
+}
@@ -0,0 +1,54 @@
+package com.library.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Builds the in-memory member index once the application has started, streaming the members table once in id
+ * order so millions of members load without holding them all as entities
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemberIndexLoader {
+
+    private static final int FETCH_SIZE = 1000;
+
+    private static final String INDEXED_FIELDS =
+            "SELECT id, first_name, last_name, email, phone_number, membership_id FROM members ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final MemberTrigramIndex memberTrigramIndex;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadIndex() {
+        if (!memberTrigramIndex.isEnabled()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        memberTrigramIndex.clear();
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(INDEXED_FIELDS,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, (RowCallbackHandler) row -> memberTrigramIndex.index(new MemberDocument(
+                row.getLong("id"),
+                row.getString("first_name"),
+                row.getString("last_name"),
+                row.getString("email"),
+                row.getString("phone_number"),
+                row.getString("membership_id"))));
+
+        log.info("Indexed {} members in {} ms", memberTrigramIndex.size(), System.currentTimeMillis() - start);
+    }
+}
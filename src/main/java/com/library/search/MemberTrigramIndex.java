@@ -0,0 +1,505 @@
+package com.library.search;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram index over member names, email, phone number and membership id, for typo-tolerant lookups
+ * at the circulation desk.
+ * <p>
+ * Text is folded to lower-case ASCII letters and digits, each word is padded with word boundaries and cut into
+ * trigrams, and every trigram is packed into an 18-bit int, so the posting lists sit in one flat array with no
+ * hashing. Posting lists are sorted int arrays of member ids (roughly 200 bytes per member in all). Only the
+ * email's local part is indexed, and phone numbers are indexed as their digits.
+ * <p>
+ * A query keeps the members sharing at least {@code MIN_SHARED} of its trigrams and ranks them by how many they
+ * share, then by trigram similarity. Candidates are only collected from the shortest posting lists that any such
+ * member must appear in; the long lists of common trigrams are galloped through instead of counted in full.
+ */
+@Component
+public class MemberTrigramIndex {
+
+    // Each character is folded to a 6-bit code, code 0 being the word boundary
+    private static final int CHAR_BITS = 6;
+    private static final int TRIGRAMS = 1 << (3 * CHAR_BITS);
+    private static final int BOUNDARY = 0;
+
+    // Share of the query's trigrams a member must contain to match; one typo in a short name still passes
+    private static final double MIN_SHARED = 0.5;
+
+    private final boolean enabled;
+    private final int[][] postings = new int[TRIGRAMS][];
+    private final int[] postingSizes = new int[TRIGRAMS];
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Distinct trigrams of each indexed member by id, 0 when the member is not indexed
+    private short[] trigramCounts = new short[1024];
+    private int size;
+
+    public MemberTrigramIndex(@Value("${library.member-index.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Add a member to the index; indexing a member already in it under the same document changes nothing
+     */
+    public void index(MemberDocument document) {
+        int id = Math.toIntExact(document.id());
+        int[] trigrams = trigrams(document);
+
+        lock.writeLock().lock();
+        try {
+            for (int trigram : trigrams) {
+                addPosting(trigram, id);
+            }
+            if (id >= trigramCounts.length) {
+                trigramCounts = Arrays.copyOf(trigramCounts, Math.max(id + 1, trigramCounts.length * 2));
+            }
+            if (trigramCounts[id] == 0) {
+                size++;
+            }
+            trigramCounts[id] = (short) Math.min(trigrams.length, Short.MAX_VALUE);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Remove a member, given the document it was last indexed under
+     */
+    public void remove(MemberDocument document) {
+        int id = Math.toIntExact(document.id());
+        int[] trigrams = trigrams(document);
+
+        lock.writeLock().lock();
+        try {
+            for (int trigram : trigrams) {
+                removePosting(trigram, id);
+            }
+            if (id < trigramCounts.length && trigramCounts[id] != 0) {
+                trigramCounts[id] = 0;
+                size--;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Swap the document a member is indexed under after its details changed
+     */
+    public void replace(MemberDocument previous, MemberDocument current) {
+        lock.writeLock().lock();
+        try {
+            remove(previous);
+            index(current);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Drop every indexed member
+     */
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            Arrays.fill(postings, null);
+            Arrays.fill(postingSizes, 0);
+            trigramCounts = new short[1024];
+            size = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Number of indexed members
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rank the members resembling the query and return the requested window of member ids, best match first
+     */
+    public SearchHits search(String query, int offset, int limit) {
+        int[] queryTrigrams = queryTrigrams(query);
+        if (queryTrigrams.length == 0) {
+            return new SearchHits(0, Collections.emptyList());
+        }
+        int minShared = Math.max(1, (int) Math.ceil(MIN_SHARED * queryTrigrams.length));
+
+        PriorityQueue<Hit> top = new PriorityQueue<>(MemberTrigramIndex::compareHits);
+        int wanted = offset + limit;
+        int total = 0;
+
+        lock.readLock().lock();
+        try {
+            Candidates shared = countShared(queryTrigrams, minShared);
+            for (int i = 0; i < shared.size; i++) {
+                int id = shared.ids[i];
+                int count = shared.counts[i];
+                if (count < minShared || trigramCounts[id] == 0) {
+                    continue;
+                }
+                total++;
+                // Shared trigrams first; the similarity, always in (0, 1], only breaks ties
+                double similarity = (double) count / (queryTrigrams.length + trigramCounts[id] - count);
+                Hit hit = new Hit(id, count + similarity);
+                if (top.size() < wanted) {
+                    top.add(hit);
+                } else if (compareHits(hit, top.peek()) > 0) {
+                    top.poll();
+                    top.add(hit);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        if (offset >= top.size()) {
+            return new SearchHits(total, Collections.emptyList());
+        }
+        List<Long> ranked = new ArrayList<>(top.size());
+        while (!top.isEmpty()) {
+            ranked.add((long) top.poll().id());
+        }
+        Collections.reverse(ranked);
+        return new SearchHits(total, ranked.subList(offset, ranked.size()));
+    }
+
+    /**
+     * Count, for every member that can still reach {@code minShared}, how many of the query trigrams it contains.
+     * A member missing from the {@code n - minShared + 1} shortest lists cannot reach it, so only those lists are
+     * merged into candidates. The longer lists are then probed, shortest first, by galloping through them in step
+     * with the sorted candidates, dropping every candidate that can no longer make it.
+     */
+    private Candidates countShared(int[] queryTrigrams, int minShared) {
+        int[] bySize = Arrays.stream(queryTrigrams).boxed()
+                .sorted((a, b) -> Integer.compare(postingSizes[a], postingSizes[b]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        int seedLists = queryTrigrams.length - minShared + 1;
+
+        Candidates candidates = merge(Arrays.copyOf(bySize, seedLists));
+        for (int i = seedLists; i < bySize.length && candidates.size > 0; i++) {
+            int[] list = postings[bySize[i]];
+            int length = postingSizes[bySize[i]];
+            int from = 0;
+            for (int c = 0; c < candidates.size && from < length; c++) {
+                from = gallop(list, from, length, candidates.ids[c]);
+                if (from < length && list[from] == candidates.ids[c]) {
+                    candidates.counts[c]++;
+                }
+            }
+            candidates.retainReaching(minShared - (bySize.length - i - 1));
+        }
+        return candidates;
+    }
+
+    /**
+     * Merge sorted posting lists into sorted candidates, counting the lists each member is in. The lists are
+     * kept in a min-heap on their current id, so each posting costs a log of the number of lists.
+     */
+    private Candidates merge(int[] trigrams) {
+        int total = 0;
+        int[][] lists = new int[trigrams.length][];
+        int[] lengths = new int[trigrams.length];
+        int[] positions = new int[trigrams.length];
+        int[] heads = new int[trigrams.length];
+        int[] heap = new int[trigrams.length];
+        int heapSize = 0;
+        for (int i = 0; i < trigrams.length; i++) {
+            lists[i] = postings[trigrams[i]];
+            lengths[i] = postingSizes[trigrams[i]];
+            total += lengths[i];
+            if (lengths[i] > 0) {
+                heads[i] = lists[i][0];
+                heap[heapSize++] = i;
+            }
+        }
+        for (int i = heapSize / 2 - 1; i >= 0; i--) {
+            siftDown(heap, heapSize, i, heads);
+        }
+
+        Candidates candidates = new Candidates(total);
+        while (heapSize > 0) {
+            int list = heap[0];
+            int id = heads[list];
+            if (candidates.size > 0 && candidates.ids[candidates.size - 1] == id) {
+                candidates.counts[candidates.size - 1]++;
+            } else {
+                candidates.ids[candidates.size] = id;
+                candidates.counts[candidates.size++] = 1;
+            }
+            if (++positions[list] < lengths[list]) {
+                heads[list] = lists[list][positions[list]];
+            } else {
+                heap[0] = heap[--heapSize];
+            }
+            siftDown(heap, heapSize, 0, heads);
+        }
+        return candidates;
+    }
+
+    // Restore the heap order below a slot, comparing lists by their current id
+    private static void siftDown(int[] heap, int heapSize, int at, int[] heads) {
+        if (at >= heapSize) {
+            return;
+        }
+        int list = heap[at];
+        while (true) {
+            int child = 2 * at + 1;
+            if (child >= heapSize) {
+                break;
+            }
+            if (child + 1 < heapSize && heads[heap[child + 1]] < heads[heap[child]]) {
+                child++;
+            }
+            if (heads[list] <= heads[heap[child]]) {
+                break;
+            }
+            heap[at] = heap[child];
+            at = child;
+        }
+        heap[at] = list;
+    }
+
+    // First position at or after from whose id is not below the given one, or length
+    private static int gallop(int[] list, int from, int length, int id) {
+        int step = 1;
+        int low = from;
+        int high = from;
+        while (high < length && list[high] < id) {
+            low = high + 1;
+            high += step;
+            step <<= 1;
+        }
+        int at = Arrays.binarySearch(list, low, Math.min(high + 1, length), id);
+        return at >= 0 ? at : -at - 1;
+    }
+
+    private void addPosting(int trigram, int id) {
+        int[] list = postings[trigram];
+        int length = postingSizes[trigram];
+        if (list == null) {
+            list = postings[trigram] = new int[4];
+        }
+        // Ids mostly arrive in increasing order, so appending is the common case
+        int at = length;
+        if (length > 0 && list[length - 1] >= id) {
+            at = Arrays.binarySearch(list, 0, length, id);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+        }
+        if (length == list.length) {
+            list = postings[trigram] = Arrays.copyOf(list, length + (length >> 1) + 1);
+        }
+        System.arraycopy(list, at, list, at + 1, length - at);
+        list[at] = id;
+        postingSizes[trigram] = length + 1;
+    }
+
+    private void removePosting(int trigram, int id) {
+        int length = postingSizes[trigram];
+        if (length == 0) {
+            return;
+        }
+        int[] list = postings[trigram];
+        int at = Arrays.binarySearch(list, 0, length, id);
+        if (at < 0) {
+            return;
+        }
+        System.arraycopy(list, at + 1, list, at, length - at - 1);
+        postingSizes[trigram] = length - 1;
+        if (length == 1) {
+            postings[trigram] = null;
+        }
+    }
+
+    /**
+     * Distinct trigrams of every indexed field of a member, sorted
+     */
+    static int[] trigrams(MemberDocument document) {
+        TrigramBuffer buffer = new TrigramBuffer();
+        for (String field : new String[]{document.firstName(), document.lastName(), localPart(document.email()),
+                document.membershipId()}) {
+            for (String word : words(field)) {
+                buffer.addWord(word, false);
+            }
+        }
+        String phone = digits(document.phoneNumber());
+        if (!phone.isEmpty()) {
+            buffer.addWord(phone, true);
+        }
+        return buffer.distinct();
+    }
+
+    /**
+     * Distinct trigrams of a query, an email being cut to its local part and a phone number to its digits.
+     * The first letters of a name share enough of its trigrams to match it as well.
+     */
+    static int[] queryTrigrams(String query) {
+        TrigramBuffer buffer = new TrigramBuffer();
+        if (query == null || query.isBlank()) {
+            return buffer.distinct();
+        }
+        if (query.matches("[\\d\\s()+.-]*\\d[\\d\\s()+.-]*")) {
+            buffer.addWord(digits(query), true);
+            return buffer.distinct();
+        }
+        for (String word : words(query.contains("@") ? query.replaceAll("@\\S*", "") : query)) {
+            buffer.addWord(word, false);
+        }
+        return buffer.distinct();
+    }
+
+    /**
+     * Fold to lower case without accents and split on anything that is not a letter or digit
+     */
+    static List<String> words(String text) {
+        if (text == null || text.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> words = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (!current.isEmpty()) {
+                words.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (!current.isEmpty()) {
+            words.add(current.toString());
+        }
+        return words;
+    }
+
+    private static String localPart(String email) {
+        if (email == null) {
+            return null;
+        }
+        int at = email.indexOf('@');
+        return at >= 0 ? email.substring(0, at) : email;
+    }
+
+    private static String digits(String text) {
+        return text == null ? "" : text.replaceAll("\\D", "");
+    }
+
+    // Letters a-z take codes 1-26 and digits 27-36, except that phone digits have codes 37-46 of their own, so an
+    // id or a phone number never matches the digits of the other; any other letter or digit shares codes 47-63
+    private static int code(char c, boolean phone) {
+        if (c >= 'a' && c <= 'z') {
+            return 1 + c - 'a';
+        }
+        if (c >= '0' && c <= '9') {
+            return (phone ? 37 : 27) + c - '0';
+        }
+        return 47 + c % 17;
+    }
+
+    private static int compareHits(Hit a, Hit b) {
+        int byScore = Double.compare(a.score(), b.score());
+        // On equal score prefer the lower (older) member id
+        return byScore != 0 ? byScore : Integer.compare(b.id(), a.id());
+    }
+
+    /**
+     * A page of ranked member ids together with the total number of matches
+     */
+    public record SearchHits(int total, List<Long> memberIds) {
+    }
+
+    private record Hit(int id, double score) {
+    }
+
+    /**
+     * Trigrams of words padded with two boundaries in front and one behind
+     */
+    private static final class TrigramBuffer {
+        private int[] trigrams = new int[64];
+        private int size;
+
+        void addWord(String word, boolean phone) {
+            int first = BOUNDARY;
+            int second = BOUNDARY;
+            for (int i = 0; i <= word.length(); i++) {
+                int third = i < word.length() ? code(word.charAt(i), phone) : BOUNDARY;
+                add((first << (2 * CHAR_BITS)) | (second << CHAR_BITS) | third);
+                first = second;
+                second = third;
+            }
+        }
+
+        private void add(int trigram) {
+            if (size == trigrams.length) {
+                trigrams = Arrays.copyOf(trigrams, size * 2);
+            }
+            trigrams[size++] = trigram;
+        }
+
+        int[] distinct() {
+            Arrays.sort(trigrams, 0, size);
+            int distinct = 0;
+            for (int i = 0; i < size; i++) {
+                if (distinct == 0 || trigrams[distinct - 1] != trigrams[i]) {
+                    trigrams[distinct++] = trigrams[i];
+                }
+            }
+            return Arrays.copyOf(trigrams, distinct);
+        }
+    }
+
+    /**
+     * Candidate member ids in increasing order, with the number of query trigrams found for each so far
+     */
+    private static final class Candidates {
+        private final int[] ids;
+        private final int[] counts;
+        private int size;
+
+        Candidates(int capacity) {
+            ids = new int[capacity];
+            counts = new int[capacity];
+        }
+
+        void retainReaching(int minCount) {
+            int kept = 0;
+            for (int i = 0; i < size; i++) {
+                if (counts[i] >= minCount) {
+                    ids[kept] = ids[i];
+                    counts[kept++] = counts[i];
+                }
+            }
+            size = kept;
+        }
+    }
+}
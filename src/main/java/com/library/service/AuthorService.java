@@ -1,8 +1,10 @@
 package com.library.service;
 
+import com.library.dto.CursorPage;
 import com.library.entity.Author;
 import com.library.repository.AuthorRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -11,6 +13,7 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDate;
 import java.time.Period;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 @Service
@@ -19,6 +22,8 @@ import java.util.Optional;
 public class AuthorService {
 
     private final AuthorRepository authorRepository;
+    private final CatalogVersion catalogVersion;
+    private final BookService bookService;
 
     /**
      * Retrieve all authors with pagination
@@ -27,6 +32,15 @@ public class AuthorService {
         return authorRepository.findAll(pageable);
     }
 
+    /**
+     * Retrieve the authors that follow the given cursor, in id order, without a count query
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Author> getAuthorsAfter(String after, int size) {
+        List<Author> rows = authorRepository.findByIdGreaterThanOrderByIdAsc(CursorPage.decode(after), Limit.of(size + 1));
+        return CursorPage.of(rows, size, Author::getId);
+    }
+
     /**
      * Find author by ID
      */
@@ -39,6 +53,7 @@ public class AuthorService {
      */
     public Author createAuthor(Author author) {
         validateAuthorData(author);
+        catalogVersion.referencesChanged();
         return authorRepository.save(author);
     }
 
@@ -51,6 +66,8 @@ public class AuthorService {
 
         // Validate updated data
         validateAuthorData(authorDetails);
+        boolean renamed = !Objects.equals(author.getFirstName(), authorDetails.getFirstName())
+                || !Objects.equals(author.getLastName(), authorDetails.getLastName());
 
         // Update fields
         author.setFirstName(authorDetails.getFirstName());
@@ -60,7 +77,13 @@ public class AuthorService {
         author.setDeathDate(authorDetails.getDeathDate());
         author.setNationality(authorDetails.getNationality());
 
-        return authorRepository.save(author);
+        catalogVersion.referencesChanged();
+        Author savedAuthor = authorRepository.save(author);
+        if (renamed) {
+            // Author names are part of the search and facet documents of their books
+            bookService.reindexBooksOfAuthor(id);
+        }
+        return savedAuthor;
     }
 
     /**
@@ -75,6 +98,7 @@ public class AuthorService {
             throw new RuntimeException("Cannot delete author who has books. Remove books first or reassign to other authors.");
         }
 
+        catalogVersion.referencesChanged();
         authorRepository.delete(author);
     }
 
@@ -0,0 +1,242 @@
+package com.library.service;
+
+import com.library.dto.BatchReturnResponse;
+import com.library.dto.BatchReturnResponse.ItemFailure;
+import com.library.entity.BorrowingTransaction;
+import com.library.entity.SystemUser;
+import com.library.eventlog.BorrowingEvent;
+import com.library.repository.BorrowingTransactionRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Closes the loans scanned from the book-drop bins. Items are processed in chunks, each chunk in its own
+ * transaction with one query to load the open loans, batched status updates and one batched availability
+ * increment and member totals update per chunk. Returned copies go to waiting holds before the shelf.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BatchReturnService {
+
+    private static final int CHUNK_SIZE = 500;
+
+    private final BorrowingTransactionRepository borrowingRepository;
+    private final BorrowingService borrowingService;
+    private final BookService bookService;
+    private final MemberService memberService;
+    private final HoldService holdService;
+    private final SystemUserService userService;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    /**
+     * Return every scanned item; items that cannot be returned are reported and skipped, the rest are returned
+     */
+    public BatchReturnResponse returnBooks(List<Long> transactionIds, List<Long> bookIds, Long returnedToUserId) {
+        long start = System.nanoTime();
+        SystemUser returnedTo = userService.getUserById(returnedToUserId);
+        if (returnedTo == null) {
+            throw new RuntimeException("User not found with id: " + returnedToUserId);
+        }
+
+        List<ReturnItem> items = new ArrayList<>();
+        if (transactionIds != null) {
+            transactionIds.forEach(id -> items.add(new ReturnItem(id, null)));
+        }
+        if (bookIds != null) {
+            bookIds.forEach(id -> items.add(new ReturnItem(null, id)));
+        }
+
+        ReturnReport report = new ReturnReport();
+        LocalDateTime returnedAt = LocalDateTime.now();
+        for (int from = 0; from < items.size(); from += CHUNK_SIZE) {
+            List<ReturnItem> chunk = items.subList(from, Math.min(from + CHUNK_SIZE, items.size()));
+            returnChunk(chunk, returnedTo, returnedAt, report);
+        }
+
+        long durationMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        log.info("Returned {} of {} items in {} ms, {} overdue, {} failed",
+                report.returned, items.size(), durationMs, report.overdue, report.failures.size());
+
+        return BatchReturnResponse.builder()
+                .requested(items.size())
+                .returned(report.returned)
+                .overdue(report.overdue)
+                .failed(report.failures.size())
+                .totalFines(report.totalFines)
+                .durationMs(durationMs)
+                .failures(report.failures)
+                .build();
+    }
+
+    /**
+     * Return one chunk in its own transaction. A chunk that loses a race with a concurrent change to one of its
+     * loans (a desk return, the fine accrual) is retried once, then returned item by item, so one busy loan
+     * cannot fail the other items of the chunk.
+     */
+    private void returnChunk(List<ReturnItem> items, SystemUser returnedTo, LocalDateTime returnedAt,
+                             ReturnReport report) {
+        try {
+            report.add(returnInTransaction(items, returnedTo, returnedAt));
+            return;
+        } catch (OptimisticLockingFailureException e) {
+            log.info("Return chunk of {} items hit a concurrent update; retrying it once", items.size());
+        } catch (RuntimeException e) {
+            rolledBack(items, e, report);
+            return;
+        }
+
+        try {
+            report.add(returnInTransaction(items, returnedTo, returnedAt));
+        } catch (OptimisticLockingFailureException e) {
+            log.warn("Return chunk of {} items hit a concurrent update again; returning its items one by one",
+                    items.size());
+            for (ReturnItem item : items) {
+                try {
+                    report.add(returnInTransaction(List.of(item), returnedTo, returnedAt));
+                } catch (RuntimeException itemFailure) {
+                    report.failures.add(item.fail("Return rolled back: " + itemFailure.getMessage()));
+                }
+            }
+        } catch (RuntimeException e) {
+            rolledBack(items, e, report);
+        }
+    }
+
+    private ChunkResult returnInTransaction(List<ReturnItem> items, SystemUser returnedTo, LocalDateTime returnedAt) {
+        return transactionTemplate.execute(status -> persistChunk(items, returnedTo, returnedAt));
+    }
+
+    private static void rolledBack(List<ReturnItem> items, RuntimeException e, ReturnReport report) {
+        log.warn("Return chunk of {} items rolled back", items.size(), e);
+        for (ReturnItem item : items) {
+            report.failures.add(item.fail("Chunk rolled back: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Return one chunk: load its open loans with one query per id kind, close them in memory, then flush
+     * the status updates and the per-book availability increments as batches
+     */
+    private ChunkResult persistChunk(List<ReturnItem> items, SystemUser returnedTo, LocalDateTime returnedAt) {
+        Set<Long> transactionIds = items.stream().map(ReturnItem::transactionId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+        Set<Long> bookIds = items.stream().map(ReturnItem::bookId)
+                .filter(Objects::nonNull).collect(Collectors.toSet());
+
+        Map<Long, BorrowingTransaction> byId = transactionIds.isEmpty() ? Map.of()
+                : borrowingRepository.findAllById(transactionIds).stream()
+                        .collect(Collectors.toMap(BorrowingTransaction::getId, Function.identity()));
+        // Oldest open loans first, so a book scanned twice closes its two oldest loans
+        Map<Long, Deque<BorrowingTransaction>> openByBook = new HashMap<>();
+        if (!bookIds.isEmpty()) {
+            for (BorrowingTransaction transaction : borrowingRepository.findOpenByBookIds(bookIds)) {
+                openByBook.computeIfAbsent(transaction.getBook().getId(), id -> new ArrayDeque<>()).add(transaction);
+            }
+        }
+
+        List<ItemFailure> failures = new ArrayList<>();
+        Set<Long> closed = new HashSet<>();
+        Map<Long, Integer> copiesByBook = new HashMap<>();
+        Map<Long, MemberService.LoanChanges> changesByMember = new HashMap<>();
+        int overdue = 0;
+        double fines = 0;
+        for (ReturnItem item : items) {
+            BorrowingTransaction transaction;
+            if (item.transactionId() != null) {
+                transaction = byId.get(item.transactionId());
+                if (transaction == null) {
+                    failures.add(item.fail("Transaction not found with id: " + item.transactionId()));
+                    continue;
+                }
+            } else {
+                transaction = nextOpen(openByBook.get(item.bookId()), closed);
+                if (transaction == null) {
+                    failures.add(item.fail("No open borrowing found for book id: " + item.bookId()));
+                    continue;
+                }
+            }
+            if (!transaction.isOpen() || !closed.add(transaction.getId())) {
+                failures.add(item.fail("Book is not currently borrowed or already returned"));
+                continue;
+            }
+
+            BorrowingTransaction loan = transaction;
+            MemberService.LoanChanges changes = borrowingService.trackChanges(loan,
+                    () -> borrowingService.applyReturn(loan, returnedTo, returnedAt));
+            borrowingService.logEvent(BorrowingEvent.Type.RETURNED, loan);
+            borrowingService.cancelReminder(loan);
+            overdue += changes.getOverdue();
+            fines += changes.getFines();
+            copiesByBook.merge(transaction.getBook().getId(), 1, Integer::sum);
+            changesByMember.computeIfAbsent(transaction.getMember().getId(), id -> new MemberService.LoanChanges())
+                    .add(changes);
+        }
+
+        // Dirty-checked updates go out in JDBC batches (hibernate.jdbc.batch_size)
+        entityManager.flush();
+        // Copies wanted by holds are set aside for them; only the rest go back on the shelf
+        copiesByBook.replaceAll((bookId, copies) -> copies - holdService.handOver(bookId, copies));
+        copiesByBook.values().removeIf(copies -> copies == 0);
+        bookService.releaseCopies(copiesByBook);
+        memberService.recordLoanChanges(changesByMember);
+        entityManager.clear();
+        return new ChunkResult(closed.size(), overdue, fines, failures);
+    }
+
+    private static BorrowingTransaction nextOpen(Deque<BorrowingTransaction> open, Set<Long> closed) {
+        if (open == null) {
+            return null;
+        }
+        // Skip loans already closed by transaction id earlier in the chunk
+        while (!open.isEmpty() && closed.contains(open.peek().getId())) {
+            open.poll();
+        }
+        return open.poll();
+    }
+
+    private record ReturnItem(Long transactionId, Long bookId) {
+
+        ItemFailure fail(String message) {
+            return new ItemFailure(transactionId, bookId, message);
+        }
+    }
+
+    private record ChunkResult(int returned, int overdue, double fines, List<ItemFailure> failures) {
+    }
+
+    /**
+     * Running totals of one batch
+     */
+    private static class ReturnReport {
+        private int returned;
+        private int overdue;
+        private double totalFines;
+        private final List<ItemFailure> failures = new ArrayList<>();
+
+        void add(ChunkResult result) {
+            returned += result.returned();
+            overdue += result.overdue();
+            totalFines += result.fines();
+            failures.addAll(result.failures());
+        }
+    }
+}
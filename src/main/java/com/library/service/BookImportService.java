@@ -0,0 +1,348 @@
+package com.library.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.library.dto.BookImportResponse;
+import com.library.dto.BookImportResponse.RowError;
+import com.library.entity.Author;
+import com.library.entity.Book;
+import com.library.entity.Category;
+import com.library.entity.Publisher;
+import com.library.importer.BookImportReader;
+import com.library.importer.BookImportRow;
+import com.library.importer.CsvBookImportReader;
+import com.library.importer.ImportRowException;
+import com.library.importer.NdjsonBookImportReader;
+import com.library.repository.AuthorRepository;
+import com.library.repository.BookRepository;
+import com.library.repository.CategoryRepository;
+import com.library.repository.PublisherRepository;
+import com.library.search.BookDocument;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+/**
+ * Streams large catalog feeds into the books table. Rows are read one at a time and written in chunks,
+ * each chunk in its own transaction with one lookup per referenced entity type and batched inserts.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BookImportService {
+
+    private static final int CHUNK_SIZE = 1000;
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    private final BookRepository bookRepository;
+    private final AuthorRepository authorRepository;
+    private final PublisherRepository publisherRepository;
+    private final CategoryRepository categoryRepository;
+    private final BookService bookService;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+
+    public enum Format {
+        CSV, NDJSON;
+
+        public static Format fromContentType(String contentType) {
+            if (contentType != null && contentType.toLowerCase().contains("ndjson")) {
+                return NDJSON;
+            }
+            return CSV;
+        }
+    }
+
+    /**
+     * Import every book of the feed; bad rows are reported and skipped, the rest are imported
+     */
+    public BookImportResponse importBooks(InputStream input, Format format) throws IOException {
+        long start = System.nanoTime();
+        ImportReport report = new ImportReport();
+        // ISBNs seen earlier in this feed, to reject duplicates across chunks
+        Set<String> seenIsbns = new HashSet<>();
+
+        try (BookImportReader reader = open(input, format)) {
+            List<BookImportRow> chunk = new ArrayList<>(CHUNK_SIZE);
+            while (true) {
+                BookImportRow row;
+                try {
+                    row = reader.next();
+                } catch (ImportRowException e) {
+                    report.rowsRead++;
+                    report.fail(e.getLine(), null, e.getMessage());
+                    continue;
+                }
+                if (row == null) {
+                    break;
+                }
+                report.rowsRead++;
+                chunk.add(row);
+                if (chunk.size() == CHUNK_SIZE) {
+                    importChunk(chunk, seenIsbns, report);
+                    chunk.clear();
+                }
+            }
+            importChunk(chunk, seenIsbns, report);
+        }
+
+        long durationMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        double rowsPerSecond = report.rowsRead * 1000.0 / durationMs;
+        log.info("Imported {} of {} books in {} ms ({} rows/s), {} failed",
+                report.imported, report.rowsRead, durationMs, Math.round(rowsPerSecond), report.failed);
+
+        return BookImportResponse.builder()
+                .rowsRead(report.rowsRead)
+                .imported(report.imported)
+                .failed(report.failed)
+                .durationMs(durationMs)
+                .rowsPerSecond(rowsPerSecond)
+                .errors(report.errors)
+                .errorsTruncated(report.failed > report.errors.size())
+                .build();
+    }
+
+    private BookImportReader open(InputStream input, Format format) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        return format == Format.NDJSON
+                ? new NdjsonBookImportReader(reader, objectMapper)
+                : new CsvBookImportReader(reader);
+    }
+
+    private void importChunk(List<BookImportRow> rows, Set<String> seenIsbns, ImportReport report) {
+        List<BookImportRow> accepted = new ArrayList<>(rows.size());
+        for (BookImportRow row : rows) {
+            String error = validate(row);
+            if (error == null && row.isbn() != null && !seenIsbns.add(row.isbn())) {
+                error = "Duplicate ISBN in import: " + row.isbn();
+            }
+            if (error != null) {
+                report.fail(row.line(), row.isbn(), error);
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+
+        importRows(accepted, report);
+    }
+
+    /**
+     * Write rows in one transaction; when that fails, retry each half in its own transaction, down to single rows,
+     * so a bad row fails only itself and not the rest of its chunk
+     */
+    private void importRows(List<BookImportRow> rows, ImportReport report) {
+        ChunkResult result;
+        try {
+            result = transactionTemplate.execute(status -> persistChunk(rows));
+        } catch (RuntimeException e) {
+            if (rows.size() == 1) {
+                BookImportRow row = rows.get(0);
+                log.warn("Import of line {} rolled back", row.line(), e);
+                report.fail(row.line(), row.isbn(), "Row rolled back: " + e.getMessage());
+                return;
+            }
+            log.debug("Import of {} rows starting at line {} rolled back, retrying in halves",
+                    rows.size(), rows.get(0).line(), e);
+            int half = rows.size() / 2;
+            importRows(rows.subList(0, half), report);
+            importRows(rows.subList(half, rows.size()), report);
+            return;
+        }
+
+        result.errors().forEach(report::fail);
+        report.imported += result.documents().size();
+        bookService.indexImportedBooks(result.documents());
+    }
+
+    private String validate(BookImportRow row) {
+        if (row.title() == null) {
+            return "Title is required";
+        }
+        if (row.totalCopies() != null && row.totalCopies() < 0) {
+            return "Total copies cannot be negative";
+        }
+        return null;
+    }
+
+    /**
+     * Write one chunk: reject ISBNs already in the catalog, resolve references through per-chunk lookup maps
+     * (creating missing ones), then insert the books in JDBC batches
+     */
+    private ChunkResult persistChunk(List<BookImportRow> rows) {
+        List<RowError> errors = new ArrayList<>();
+
+        Set<String> isbns = new HashSet<>();
+        rows.stream().map(BookImportRow::isbn).filter(Objects::nonNull).forEach(isbns::add);
+        Set<String> existingIsbns = isbns.isEmpty() ? Set.of() : bookRepository.findExistingIsbns(isbns);
+
+        List<BookImportRow> newRows = new ArrayList<>(rows.size());
+        for (BookImportRow row : rows) {
+            if (row.isbn() != null && existingIsbns.contains(row.isbn())) {
+                errors.add(new RowError(row.line(), row.isbn(), "Book with ISBN already exists: " + row.isbn()));
+            } else {
+                newRows.add(row);
+            }
+        }
+
+        Map<String, Publisher> publishers = resolvePublishers(newRows);
+        Map<String, Category> categories = resolveCategories(newRows);
+        Map<String, Author> authors = resolveAuthors(newRows);
+
+        List<Book> books = new ArrayList<>(newRows.size());
+        for (BookImportRow row : newRows) {
+            books.add(toBook(row, publishers, categories, authors));
+        }
+        bookRepository.saveAll(books);
+        entityManager.flush();
+
+        List<BookDocument> documents = books.stream().map(BookDocument::from).toList();
+        // Keep the persistence context from growing across chunks
+        entityManager.clear();
+        return new ChunkResult(documents, errors);
+    }
+
+    private Map<String, Publisher> resolvePublishers(List<BookImportRow> rows) {
+        Set<String> names = names(rows.stream().map(BookImportRow::publisher).filter(Objects::nonNull).toList());
+        return resolve(names, publisherRepository::findByNameIn, Publisher::getName, name -> {
+            Publisher publisher = new Publisher();
+            publisher.setName(name);
+            return publisher;
+        }, publisherRepository::saveAll);
+    }
+
+    private Map<String, Category> resolveCategories(List<BookImportRow> rows) {
+        Set<String> names = names(rows.stream().flatMap(row -> row.categories().stream()).toList());
+        return resolve(names, categoryRepository::findByNameIn, Category::getName, name -> {
+            Category category = new Category();
+            category.setName(name);
+            return category;
+        }, categoryRepository::saveAll);
+    }
+
+    private Map<String, Author> resolveAuthors(List<BookImportRow> rows) {
+        Set<String> names = names(rows.stream().flatMap(row -> row.authors().stream()).map(this::fullName).toList());
+        return resolve(names, authorRepository::findByFullNameIn, author -> author.getFullName().trim(), this::newAuthor,
+                authorRepository::saveAll);
+    }
+
+    /**
+     * Build a name -> entity map for the chunk with one lookup query, inserting the names that are missing
+     */
+    private <T> Map<String, T> resolve(Set<String> names,
+                                       Function<Set<String>, List<T>> lookup,
+                                       Function<T, String> nameOf,
+                                       Function<String, T> create,
+                                       Function<List<T>, List<T>> saveAll) {
+        // Case-insensitive to match the database collation of the unique name columns
+        Map<String, T> byName = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        if (names.isEmpty()) {
+            return byName;
+        }
+        for (T entity : lookup.apply(names)) {
+            byName.putIfAbsent(nameOf.apply(entity), entity);
+        }
+        List<T> missing = names.stream().filter(name -> !byName.containsKey(name)).map(create).toList();
+        if (!missing.isEmpty()) {
+            saveAll.apply(missing).forEach(entity -> byName.put(nameOf.apply(entity), entity));
+        }
+        return byName;
+    }
+
+    private Book toBook(BookImportRow row, Map<String, Publisher> publishers,
+                        Map<String, Category> categories, Map<String, Author> authors) {
+        Book book = new Book();
+        book.setIsbn(row.isbn());
+        book.setTitle(row.title());
+        book.setEdition(row.edition());
+        book.setPublicationYear(row.publicationYear());
+        book.setLanguage(row.language());
+        book.setSummary(row.summary());
+        book.setCoverImageUrl(row.coverImageUrl());
+        int copies = row.totalCopies() != null ? row.totalCopies() : 1;
+        book.setTotalCopies(copies);
+        book.setAvailableCopies(copies);
+        book.setPublisher(row.publisher() != null ? publishers.get(row.publisher()) : null);
+
+        Set<Author> bookAuthors = new HashSet<>();
+        for (String name : row.authors()) {
+            bookAuthors.add(authors.get(fullName(name)));
+        }
+        book.setAuthors(bookAuthors);
+
+        Set<Category> bookCategories = new HashSet<>();
+        for (String name : row.categories()) {
+            bookCategories.add(categories.get(name));
+        }
+        book.setCategories(bookCategories);
+        return book;
+    }
+
+    private static Set<String> names(List<String> values) {
+        Set<String> names = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+        names.addAll(values);
+        return names;
+    }
+
+    /**
+     * Normalise "Last, First" to "First Last" so it matches Author.getFullName
+     */
+    private String fullName(String name) {
+        int comma = name.indexOf(',');
+        if (comma < 0) {
+            return name;
+        }
+        return (name.substring(comma + 1).trim() + " " + name.substring(0, comma).trim()).trim();
+    }
+
+    private Author newAuthor(String fullName) {
+        Author author = new Author();
+        int space = fullName.lastIndexOf(' ');
+        author.setFirstName(space < 0 ? fullName : fullName.substring(0, space));
+        author.setLastName(space < 0 ? "" : fullName.substring(space + 1));
+        return author;
+    }
+
+    private record ChunkResult(List<BookDocument> documents, List<RowError> errors) {
+    }
+
+    /**
+     * Running totals of one import
+     */
+    private static class ImportReport {
+        private long rowsRead;
+        private long imported;
+        private long failed;
+        private final List<RowError> errors = new ArrayList<>();
+
+        void fail(long line, String isbn, String message) {
+            fail(new RowError(line, isbn, message));
+        }
+
+        void fail(RowError error) {
+            failed++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(error);
+            }
+        }
+    }
+}
@@ -1,13 +1,33 @@
 package com.library.service;
 
+import com.library.dto.CursorPage;
 import com.library.entity.Book;
+import com.library.inventory.InventoryLedger;
 import com.library.repository.BookRepository;
+import com.library.search.BookAvailabilityIndex;
+import com.library.search.BookDocument;
+import com.library.search.BookFacetIndex;
+import com.library.search.BookSearchIndex;
+import com.library.search.FacetCount;
+import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
@@ -16,12 +36,31 @@ import java.util.Optional;
 public class BookService {
 
     private final BookRepository bookRepository;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookFacetIndex bookFacetIndex;
+    private final BookAvailabilityIndex bookAvailabilityIndex;
+    private final InventoryLedger inventoryLedger;
+    private final CatalogVersion catalogVersion;
+    private final JdbcTemplate jdbcTemplate;
 
     /**
-     * Retrieve all books with pagination
+     * Retrieve all books with pagination, with authors, publisher and categories loaded
      */
+    @Transactional(readOnly = true)
     public Page<Book> getAllBooks(Pageable pageable) {
-        return bookRepository.findAll(pageable);
+        Page<Long> ids = bookRepository.findPageOfIds(pageable);
+        return new PageImpl<>(findAllInOrder(ids.getContent()), pageable, ids.getTotalElements());
+    }
+
+    /**
+     * Retrieve the books that follow the given cursor, in id order, without a count query
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Book> getBooksAfter(String after, int size) {
+        List<Book> rows = bookRepository.findByIdGreaterThanOrderByIdAsc(CursorPage.decode(after), Limit.of(size + 1));
+        CursorPage<Book> page = CursorPage.of(rows, size, Book::getId);
+        fetchRelations(page.getContent().stream().map(Book::getId).toList());
+        return page;
     }
 
     /**
@@ -31,6 +70,20 @@ public class BookService {
         return bookRepository.findById(id);
     }
 
+    /**
+     * Strong ETag of a book from its last modification and the version of the authors, publishers and
+     * categories embedded in its representation. Empty when the book does not exist or has never been stamped.
+     */
+    @Transactional(readOnly = true)
+    public Optional<String> getBookETag(Long id) {
+        long references = catalogVersion.references();
+        return bookRepository.findVersionById(id)
+                .filter(version -> version.getUpdatedAt() != null)
+                .map(version -> "\"book-" + id + "-"
+                        + version.getUpdatedAt().toEpochSecond(ZoneOffset.UTC) + "."
+                        + version.getUpdatedAt().getNano() + "-" + references + "\"");
+    }
+
     /**
      * Create a new book
      */
@@ -48,13 +101,17 @@ public class BookService {
             book.setAvailableCopies(book.getTotalCopies());
         }
 
-        return bookRepository.save(book);
+        Book savedBook = bookRepository.save(book);
+        reindex(savedBook);
+        catalogVersion.bookChanged();
+        return savedBook;
     }
 
     /**
      * Update an existing book
      */
     public Book updateBook(Long id, Book bookDetails) {
+        releaseFromLedger(id);
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Book not found with id: " + id));
 
@@ -72,81 +129,247 @@ public class BookService {
         book.setPublisher(bookDetails.getPublisher());
         book.setCategories(bookDetails.getCategories());
 
-        return bookRepository.save(book);
+        Book savedBook = bookRepository.save(book);
+        reindex(savedBook);
+        catalogVersion.bookChanged();
+        return savedBook;
     }
 
     /**
      * Delete a book
      */
     public void deleteBook(Long id) {
+        releaseFromLedger(id);
         Book book = bookRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Book not found with id: " + id));
 
         bookRepository.delete(book);
+        TransactionHooks.afterCommit(() -> {
+            bookSearchIndex.remove(id);
+            bookFacetIndex.remove(id);
+            bookAvailabilityIndex.remove(id);
+        });
+        catalogVersion.bookChanged();
     }
 
     /**
-     * Search books by title (case-insensitive)
+     * Full-text search over title, summary, ISBN and author names, ranked by relevance
      */
+    @Transactional(readOnly = true)
     public Page<Book> searchBooksByTitle(String title, Pageable pageable) {
-        return bookRepository.findByTitleContainingIgnoreCase(title, pageable);
+        BookSearchIndex.SearchHits hits = bookSearchIndex.search(
+                title, (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(findAllInOrder(hits.bookIds()), pageable, hits.total());
+    }
+
+    /**
+     * Faceted search: every filter is optional and the result carries facet counts for the whole match set
+     */
+    @Transactional(readOnly = true)
+    public BookSearchResult searchBooks(String title, String author, String category, String publisher,
+                                        Integer year, String language, boolean availableOnly, Pageable pageable) {
+        BookFacetIndex.FacetedHits hits = bookFacetIndex.search(
+                new BookFacetIndex.FacetQuery(title, author, category, publisher, year, language, availableOnly),
+                (int) pageable.getOffset(),
+                pageable.getPageSize());
+        Page<Book> books = new PageImpl<>(findAllInOrder(hits.bookIds()), pageable, hits.total());
+        return new BookSearchResult(books, hits.facets());
     }
 
     /**
-     * Get all available books (books with available copies > 0)
+     * Get all available books (books with available copies > 0), ordered by id.
+     * The page is cut from the in-memory availability bitset and only its ids are loaded.
      */
+    @Transactional(readOnly = true)
     public Page<Book> getAvailableBooks(Pageable pageable) {
-        return bookRepository.findAvailableBooks(pageable);
+        List<Long> ids = bookAvailabilityIndex.page((int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(findAllInOrder(ids), pageable, bookAvailabilityIndex.count());
     }
 
     /**
-     * Update book availability when borrowing/returning
+     * Update book availability when borrowing/returning.
+     * Runs as a single guarded UPDATE so concurrent checkouts can never oversell the last copy,
+     * or through the inventory ledger when it is enabled.
      */
     public void updateBookAvailability(Long bookId, int change) {
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
+        if (inventoryLedger.isEnabled()) {
+            // The ledger bumps the catalog version when it writes the change back
+            inventoryLedger.adjust(bookId, change);
+            TransactionHooks.afterRollback(() -> inventoryLedger.compensate(bookId, change));
+            return;
+        }
 
-        int newAvailableCopies = book.getAvailableCopies() + change;
+        if (bookRepository.adjustAvailableCopies(bookId, change, LocalDateTime.now()) == 0) {
+            // Guard failed: find out why, only on this (rare) path
+            Book book = bookRepository.findById(bookId)
+                    .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
+            if (book.getAvailableCopies() + change < 0) {
+                throw new RuntimeException("Cannot reduce available copies below zero");
+            }
+            throw new RuntimeException("Available copies cannot exceed total copies");
+        }
 
-        // Validate availability constraints
-        if (newAvailableCopies < 0) {
-            throw new RuntimeException("Cannot reduce available copies below zero");
+        TransactionHooks.afterCommit(() -> bookAvailabilityIndex.markStale(bookId));
+        catalogVersion.bookChanged();
+    }
+
+    /**
+     * Take one copy of a book off the shelf with a single guarded update; false when the book is missing
+     * or has no copy left
+     */
+    public boolean takeCopy(Long bookId) {
+        if (inventoryLedger.isEnabled()) {
+            return claimFromLedger(bookId);
         }
-        if (newAvailableCopies > book.getTotalCopies()) {
-            throw new RuntimeException("Available copies cannot exceed total copies");
+        if (bookRepository.adjustAvailableCopies(bookId, -1, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        TransactionHooks.afterCommit(() -> bookAvailabilityIndex.markStale(bookId));
+        catalogVersion.bookChanged();
+        return true;
+    }
+
+    /**
+     * Take one copy of each requested book, in request order, stopping once {@code limit} books are claimed.
+     * The books are locked and decremented with a single multi-row update (or through the inventory ledger).
+     * Books left unprocessed because of the limit appear in neither map of the result.
+     */
+    public CopyClaims claimCopies(List<Long> bookIds, int limit) {
+        CopyClaims claims = new CopyClaims();
+        if (bookIds.isEmpty() || limit <= 0) {
+            return claims;
         }
 
-        book.setAvailableCopies(newAvailableCopies);
-        bookRepository.save(book);
+        boolean useLedger = inventoryLedger.isEnabled();
+        Map<Long, Book> books = new HashMap<>();
+        for (Book book : useLedger ? bookRepository.findAllById(bookIds) : bookRepository.findAllByIdForUpdate(bookIds)) {
+            books.put(book.getId(), book);
+        }
+
+        for (Long bookId : bookIds) {
+            if (claims.getClaimed().size() == limit) {
+                break;
+            }
+            Book book = books.get(bookId);
+            if (book == null) {
+                claims.getRejected().put(bookId, "Book not found with id: " + bookId);
+            } else if (useLedger ? claimFromLedger(bookId) : book.isAvailable()) {
+                claims.getClaimed().put(bookId, book);
+            } else {
+                claims.getRejected().put(bookId, "Book is not available for borrowing");
+            }
+        }
+
+        if (claims.getClaimed().isEmpty()) {
+            return claims;
+        }
+        if (!useLedger) {
+            // The rows are locked, so every claimed book still has a copy
+            List<Long> claimedIds = List.copyOf(claims.getClaimed().keySet());
+            if (bookRepository.claimOneCopyEach(claimedIds, LocalDateTime.now()) != claimedIds.size()) {
+                throw new IllegalStateException("Locked books changed while claiming copies");
+            }
+            TransactionHooks.afterCommit(() -> claimedIds.forEach(bookAvailabilityIndex::markStale));
+        }
+        catalogVersion.bookChanged();
+        return claims;
     }
 
     /**
-     * Add copies to an existing book
+     * Put copies back on the shelf for several books at once, one batched statement for all of them
+     */
+    public void releaseCopies(Map<Long, Integer> copiesByBook) {
+        if (copiesByBook.isEmpty()) {
+            return;
+        }
+        if (inventoryLedger.isEnabled()) {
+            copiesByBook.forEach((bookId, copies) -> {
+                inventoryLedger.adjust(bookId, copies);
+                TransactionHooks.afterRollback(() -> inventoryLedger.compensate(bookId, copies));
+            });
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Long> bookIds = List.copyOf(copiesByBook.keySet());
+        List<Object[]> rows = new ArrayList<>(bookIds.size());
+        for (Long bookId : bookIds) {
+            int copies = copiesByBook.get(bookId);
+            rows.add(new Object[]{copies, now, bookId, copies});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(
+                "UPDATE books SET available_copies = available_copies + ?, updated_at = ?, version = version + 1 " +
+                        "WHERE id = ? AND available_copies + ? <= total_copies", rows);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                throw new RuntimeException("Available copies cannot exceed total copies for book id: " + bookIds.get(i));
+            }
+        }
+
+        TransactionHooks.afterCommit(() -> bookIds.forEach(bookAvailabilityIndex::markStale));
+        catalogVersion.bookChanged();
+    }
+
+    private boolean claimFromLedger(Long bookId) {
+        try {
+            inventoryLedger.adjust(bookId, -1);
+        } catch (RuntimeException e) {
+            return false;
+        }
+        TransactionHooks.afterRollback(() -> inventoryLedger.compensate(bookId, -1));
+        return true;
+    }
+
+    /**
+     * Write off a copy that will never come back (lost by a member)
+     */
+    public void removeLostCopy(Long bookId) {
+        releaseFromLedger(bookId);
+        if (bookRepository.removeLostCopy(bookId, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("Book not found or has no borrowed copies: " + bookId);
+        }
+        catalogVersion.bookChanged();
+    }
+
+    /**
+     * Add copies to an existing book. The row is locked for the read-modify-write: on a hot title that beats
+     * optimistic versioning with retries, which wastes most attempts once several desks change the same book.
      */
     public Book addCopies(Long bookId, int additionalCopies) {
+        return addCopies(bookId, additionalCopies, 0);
+    }
+
+    /**
+     * Add copies to an existing book, of which {@code setAside} were already handed to waiting holds and do not go
+     * on the shelf
+     */
+    public Book addCopies(Long bookId, int additionalCopies, int setAside) {
         if (additionalCopies <= 0) {
             throw new RuntimeException("Additional copies must be positive");
         }
+        releaseFromLedger(bookId);
 
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
+        Book book = lockBook(bookId);
 
         book.setTotalCopies(book.getTotalCopies() + additionalCopies);
-        book.setAvailableCopies(book.getAvailableCopies() + additionalCopies);
+        book.setAvailableCopies(book.getAvailableCopies() + additionalCopies - setAside);
 
-        return bookRepository.save(book);
+        Book savedBook = bookRepository.save(book);
+        TransactionHooks.afterCommit(() -> bookAvailabilityIndex.markStale(bookId));
+        catalogVersion.bookChanged();
+        return savedBook;
     }
 
     /**
-     * Remove copies from an existing book
+     * Remove copies from an existing book, under the same row lock as {@link #addCopies}
      */
     public Book removeCopies(Long bookId, int copiesToRemove) {
         if (copiesToRemove <= 0) {
             throw new RuntimeException("Copies to remove must be positive");
         }
+        releaseFromLedger(bookId);
 
-        Book book = bookRepository.findById(bookId)
-                .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
+        Book book = lockBook(bookId);
 
         int borrowedCopies = book.getTotalCopies() - book.getAvailableCopies();
 
@@ -157,6 +380,115 @@ public class BookService {
         book.setTotalCopies(book.getTotalCopies() - copiesToRemove);
         book.setAvailableCopies(Math.max(0, book.getAvailableCopies() - copiesToRemove));
 
-        return bookRepository.save(book);
+        Book savedBook = bookRepository.save(book);
+        TransactionHooks.afterCommit(() -> bookAvailabilityIndex.markStale(bookId));
+        catalogVersion.bookChanged();
+        return savedBook;
+    }
+
+    /**
+     * Load a book with a row lock held until the transaction ends
+     */
+    private Book lockBook(Long bookId) {
+        return bookRepository.findAllByIdForUpdate(List.of(bookId)).stream()
+                .findFirst()
+                .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
+    }
+
+    /**
+     * Add freshly imported books to the in-memory catalog indexes
+     */
+    public void indexImportedBooks(List<BookDocument> documents) {
+        documents.forEach(this::index);
+        catalogVersion.bookChanged();
+    }
+
+    /**
+     * Make the book row authoritative for a direct update: write back the ledger now and reload it after commit
+     */
+    private void releaseFromLedger(Long bookId) {
+        inventoryLedger.evict(bookId);
+        TransactionHooks.afterCommit(() -> inventoryLedger.evict(bookId));
+    }
+
+    /**
+     * Refresh the books of an author in the in-memory catalog indexes once the transaction commits,
+     * e.g. after the author was renamed
+     */
+    public void reindexBooksOfAuthor(Long authorId) {
+        List<BookDocument> documents = fetchRelations(bookRepository.findIdsByAuthorId(authorId)).stream()
+                .map(BookDocument::from)
+                .toList();
+        if (!documents.isEmpty()) {
+            TransactionHooks.afterCommit(() -> documents.forEach(this::index));
+            catalogVersion.bookChanged();
+        }
+    }
+
+    /**
+     * Refresh a book in the in-memory catalog indexes once the transaction commits; the document is built now,
+     * while its relations can still be loaded
+     */
+    private void reindex(Book book) {
+        BookDocument document = BookDocument.from(book);
+        TransactionHooks.afterCommit(() -> index(document));
+    }
+
+    private void index(BookDocument document) {
+        bookSearchIndex.index(document);
+        bookFacetIndex.index(document);
+        bookAvailabilityIndex.update(document.id(), document.available());
+    }
+
+    /**
+     * Load books by id with their relations, keeping the order of the given ids
+     */
+    private List<Book> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            positions.put(ids.get(i), i);
+        }
+        return fetchRelations(ids).stream()
+                .sorted(Comparator.comparing(book -> positions.get(book.getId())))
+                .toList();
+    }
+
+    /**
+     * Load books with authors, publisher and categories in two queries, whatever the number of ids.
+     * Both queries resolve to the same managed instances, so the second one completes the first.
+     */
+    private List<Book> fetchRelations(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Book> books = bookRepository.findWithAuthorsAndPublisherByIdIn(ids);
+        bookRepository.findWithCategoriesByIdIn(ids);
+        return books;
+    }
+
+    /**
+     * Inner class for the outcome of claiming copies of several books
+     */
+    @Data
+    public static class CopyClaims {
+        private final Map<Long, Book> claimed = new LinkedHashMap<>();
+        private final Map<Long, String> rejected = new HashMap<>();
+    }
+
+    /**
+     * Inner class for a page of faceted search results
+     */
+    @Data
+    public static class BookSearchResult {
+        private final Page<Book> books;
+        private final Map<String, List<FacetCount>> facets;
+
+        public BookSearchResult(Page<Book> books, Map<String, List<FacetCount>> facets) {
+            this.books = books;
+            this.facets = facets;
+        }
     }
 }
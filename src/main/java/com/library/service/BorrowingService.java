@@ -1,12 +1,21 @@
 package com.library.service;
 
+import com.library.dto.CursorPage;
 import com.library.entity.Book;
 import com.library.entity.BorrowingTransaction;
 import com.library.entity.Member;
 import com.library.entity.SystemUser;
+import com.library.eventlog.BorrowingEvent;
+import com.library.eventlog.EventLog;
+import com.library.exception.InvalidCursorException;
+import com.library.fine.FinePolicy;
+import com.library.reminder.ReminderScheduler;
 import com.library.repository.BorrowingTransactionRepository;
+import jakarta.persistence.EntityManager;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -14,10 +23,16 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
+@Slf4j
 @Service
 @Transactional
 @RequiredArgsConstructor
@@ -26,60 +41,136 @@ public class BorrowingService {
     private final BorrowingTransactionRepository borrowingRepository;
     private final BookService bookService;
     private final MemberService memberService;
+    private final HoldService holdService;
     private final SystemUserService userService;
+    private final EntityManager entityManager;
+    private final FinePolicy finePolicy;
+    private final EventLog eventLog;
+    private final ReminderScheduler reminderScheduler;
 
     // Configuration constants
     private static final int MAX_BOOKS_PER_MEMBER = 5;
     private static final int DEFAULT_BORROWING_PERIOD_DAYS = 14;
-    private static final double DAILY_FINE_RATE = 0.50; // $0.50 per day
-
     /**
-     * Borrow a book for a member
+     * Borrow a book for a member. The common case costs three statements: the guarded update taking a loan slot
+     * (which also checks eligibility and the borrowing limit against the member's counter), the guarded copy
+     * decrement and the insert; the issuing user comes from the second-level cache, and the transaction id from a
+     * pooled sequence that costs one more round trip every 50 checkouts. A member picking up a copy
+     * set aside for their hold closes the hold instead of taking a copy off the shelf.
      */
     public BorrowingTransaction borrowBook(Long bookId, Long memberId, Long issuedByUserId) {
-        // Validate book exists and is available
-        Book book = bookService.getBookById(bookId)
-                .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
+        if (!memberService.reserveLoans(memberId, 1, MAX_BOOKS_PER_MEMBER)
+                || !(holdService.fulfillReadyHold(bookId, memberId) || bookService.takeCopy(bookId))) {
+            // Rolls back the loan slot if it was taken
+            throw checkoutRejection(bookId, memberId, issuedByUserId);
+        }
+
+        // Validate user exists
+        SystemUser issuedBy = userService.getUserById(issuedByUserId);
+        if (issuedBy == null) {
+            throw new RuntimeException("User not found with id: " + issuedByUserId);
+        }
 
-        if (!book.isAvailable()) {
-            throw new RuntimeException("Book is not available for borrowing");
+        // Create borrowing transaction
+        Book book = entityManager.getReference(Book.class, bookId);
+        Member member = entityManager.getReference(Member.class, memberId);
+        BorrowingTransaction transaction = borrowingRepository.save(newTransaction(book, member, issuedBy));
+        logEvent(BorrowingEvent.Type.BORROWED, transaction);
+        scheduleReminder(transaction);
+        return transaction;
+    }
+
+    /**
+     * Explain why a checkout was refused, checking the rules in their usual order; only runs on the refused path
+     */
+    private RuntimeException checkoutRejection(Long bookId, Long memberId, Long issuedByUserId) {
+        Book book = bookService.getBookById(bookId).orElse(null);
+        if (book == null) {
+            return new RuntimeException("Book not found with id: " + bookId);
+        }
+        if (!book.isAvailable() && !holdService.hasReadyHold(bookId, memberId)) {
+            return new RuntimeException("Book is not available for borrowing");
         }
 
-        // Validate member exists and is eligible
+        Member member = memberService.getMemberById(memberId).orElse(null);
+        if (member == null) {
+            return new RuntimeException("Member not found with id: " + memberId);
+        }
+        if (!memberService.isMemberEligibleForBorrowing(member)) {
+            return new RuntimeException("Member is not eligible for borrowing (inactive or expired membership)");
+        }
+
+        // Throws when the user does not exist
+        userService.getUserById(issuedByUserId);
+        return new RuntimeException("Member has reached maximum borrowing limit of " + MAX_BOOKS_PER_MEMBER + " books");
+    }
+
+    /**
+     * Borrow several books for a member at once. Eligibility and the borrowing limit are checked once,
+     * copies are claimed with a single update and all transactions are inserted in one batch.
+     * Books that cannot be borrowed are reported individually instead of failing the whole request.
+     */
+    public List<BatchBorrowingOutcome> borrowBooks(List<Long> bookIds, Long memberId, Long issuedByUserId) {
         Member member = memberService.getMemberById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found with id: " + memberId));
 
-        if (!memberService.isMemberEligibleForBorrowing(memberId)) {
+        if (!memberService.isMemberEligibleForBorrowing(member)) {
             throw new RuntimeException("Member is not eligible for borrowing (inactive or expired membership)");
         }
 
-        // Validate user exists
         SystemUser issuedBy = userService.getUserById(issuedByUserId);
         if (issuedBy == null) {
             throw new RuntimeException("User not found with id: " + issuedByUserId);
         }
-        // Check borrowing limits
-        Long activeBorrowings = borrowingRepository.countActiveBorrowingsByMember(member);
-        if (activeBorrowings >= MAX_BOOKS_PER_MEMBER) {
-            throw new RuntimeException("Member has reached maximum borrowing limit of " + MAX_BOOKS_PER_MEMBER + " books");
-        }
 
-        // Create borrowing transaction
-        BorrowingTransaction transaction = new BorrowingTransaction();
-        transaction.setBook(book);
-        transaction.setMember(member);
-        transaction.setIssuedBy(issuedBy);
-        transaction.setBorrowDate(LocalDateTime.now());
-        transaction.setDueDate(LocalDate.now().plusDays(DEFAULT_BORROWING_PERIOD_DAYS));
-        transaction.setStatus(BorrowingTransaction.TransactionStatus.BORROWED);
-        transaction.setFineAmount(0.0);
+        int remaining = Math.max(0, MAX_BOOKS_PER_MEMBER - member.getActiveLoanCount());
 
-        BorrowingTransaction savedTransaction = borrowingRepository.save(transaction);
+        List<Long> distinctBookIds = bookIds.stream().distinct().toList();
+        // A copy set aside for one of the member's ready holds is theirs, as in borrowBook; free when none is
+        Map<Long, Book> fromHolds = new LinkedHashMap<>();
+        for (Long bookId : distinctBookIds) {
+            if (fromHolds.size() < remaining && holdService.fulfillReadyHold(bookId, memberId)) {
+                fromHolds.put(bookId, entityManager.getReference(Book.class, bookId));
+            }
+        }
+        List<Long> fromShelf = fromHolds.isEmpty() ? distinctBookIds
+                : distinctBookIds.stream().filter(bookId -> !fromHolds.containsKey(bookId)).toList();
+        BookService.CopyClaims claims = bookService.claimCopies(fromShelf, remaining - fromHolds.size());
+        int claimed = fromHolds.size() + claims.getClaimed().size();
+        if (claimed > 0 && !memberService.reserveLoans(memberId, claimed, MAX_BOOKS_PER_MEMBER)) {
+            // Another desk lent to the same member in the meantime
+            throw new RuntimeException("Member has reached maximum borrowing limit of " + MAX_BOOKS_PER_MEMBER + " books");
+        }
 
-        // Update book availability
-        bookService.updateBookAvailability(bookId, -1);
+        List<BorrowingTransaction> transactions = new ArrayList<>();
+        for (Book book : fromHolds.values()) {
+            transactions.add(newTransaction(book, member, issuedBy));
+        }
+        for (Book book : claims.getClaimed().values()) {
+            transactions.add(newTransaction(book, member, issuedBy));
+        }
+        Map<Long, BorrowingTransaction> transactionsByBook = new HashMap<>();
+        for (BorrowingTransaction transaction : borrowingRepository.saveAll(transactions)) {
+            transactionsByBook.put(transaction.getBook().getId(), transaction);
+            logEvent(BorrowingEvent.Type.BORROWED, transaction);
+            scheduleReminder(transaction);
+        }
 
-        return savedTransaction;
+        List<BatchBorrowingOutcome> outcomes = new ArrayList<>(bookIds.size());
+        Set<Long> seen = new HashSet<>();
+        for (Long bookId : bookIds) {
+            if (!seen.add(bookId)) {
+                outcomes.add(BatchBorrowingOutcome.rejected(bookId, "Book requested more than once"));
+            } else if (transactionsByBook.containsKey(bookId)) {
+                outcomes.add(BatchBorrowingOutcome.borrowed(bookId, transactionsByBook.get(bookId)));
+            } else if (claims.getRejected().containsKey(bookId)) {
+                outcomes.add(BatchBorrowingOutcome.rejected(bookId, claims.getRejected().get(bookId)));
+            } else {
+                outcomes.add(BatchBorrowingOutcome.rejected(bookId,
+                        "Member has reached maximum borrowing limit of " + MAX_BOOKS_PER_MEMBER + " books"));
+            }
+        }
+        return outcomes;
     }
 
     /**
@@ -89,7 +180,7 @@ public class BorrowingService {
         BorrowingTransaction transaction = borrowingRepository.findById(transactionId)
                 .orElseThrow(() -> new RuntimeException("Transaction not found with id: " + transactionId));
 
-        if (transaction.getStatus() != BorrowingTransaction.TransactionStatus.BORROWED) {
+        if (!transaction.isOpen()) {
             throw new RuntimeException("Book is not currently borrowed or already returned");
         }
 
@@ -97,26 +188,19 @@ public class BorrowingService {
         if (returnedTo == null) {
             throw new RuntimeException("User not found with id: " + returnedToUserId);
         }
-        // Calculate fine if overdue
-        LocalDate today = LocalDate.now();
-        if (today.isAfter(transaction.getDueDate())) {
-            long overdueDays = ChronoUnit.DAYS.between(transaction.getDueDate(), today);
-            double fine = overdueDays * DAILY_FINE_RATE;
-            transaction.setFineAmount(fine);
-            transaction.setStatus(BorrowingTransaction.TransactionStatus.OVERDUE);
-        }
-
-        // Update transaction
-        transaction.setReturnDate(LocalDateTime.now());
-        transaction.setReturnedTo(returnedTo);
-        if (transaction.getStatus() == BorrowingTransaction.TransactionStatus.BORROWED) {
-            transaction.setStatus(BorrowingTransaction.TransactionStatus.RETURNED);
-        }
+        MemberService.LoanChanges changes = trackChanges(transaction,
+                () -> applyReturn(transaction, returnedTo, LocalDateTime.now()));
 
         BorrowingTransaction updatedTransaction = borrowingRepository.save(transaction);
 
-        // Update book availability
-        bookService.updateBookAvailability(transaction.getBook().getId(), 1);
+        // Hand the copy to the next hold or put it back on the shelf, then update the member's loan counter and totals
+        Long bookId = transaction.getBook().getId();
+        if (!holdService.handOver(bookId)) {
+            bookService.updateBookAvailability(bookId, 1);
+        }
+        memberService.recordLoanChanges(transaction.getMember().getId(), changes);
+        logEvent(BorrowingEvent.Type.RETURNED, updatedTransaction);
+        cancelReminder(updatedTransaction);
 
         return updatedTransaction;
     }
@@ -128,6 +212,16 @@ public class BorrowingService {
         return borrowingRepository.findAll(pageable);
     }
 
+    /**
+     * Retrieve the transactions that follow the given cursor, in id order, without a count query
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<BorrowingTransaction> getTransactionsAfter(String after, int size) {
+        List<BorrowingTransaction> rows = borrowingRepository.findByIdGreaterThanOrderByIdAsc(
+                CursorPage.decode(after), Limit.of(size + 1));
+        return CursorPage.of(rows, size, BorrowingTransaction::getId);
+    }
+
     /**
      * Find transaction by ID
      */
@@ -150,10 +244,30 @@ public class BorrowingService {
     }
 
     /**
-     * Get all overdue transactions
+     * Retrieve the overdue loans still out that follow the given cursor, oldest due date first.
+     * Loans become overdue through {@link OverdueSweeper}.
      */
-    public List<BorrowingTransaction> getOverdueTransactions() {
-        return borrowingRepository.findOverdueTransactions(LocalDate.now());
+    @Transactional(readOnly = true)
+    public CursorPage<BorrowingTransaction> getOverdueTransactionsAfter(String after, int size) {
+        String key = CursorPage.decodeKey(after);
+        if (key == null) {
+            return CursorPage.ofKey(borrowingRepository.findOverdue(Limit.of(size + 1)), size, this::overdueKey);
+        }
+        int separator = key.indexOf('/');
+        LocalDate dueDate;
+        Long id;
+        try {
+            dueDate = LocalDate.parse(key.substring(0, separator));
+            id = Long.parseLong(key.substring(separator + 1));
+        } catch (RuntimeException e) {
+            throw new InvalidCursorException("Invalid cursor: " + after);
+        }
+        return CursorPage.ofKey(borrowingRepository.findOverdueAfter(dueDate, id, Limit.of(size + 1)),
+                size, this::overdueKey);
+    }
+
+    private String overdueKey(BorrowingTransaction transaction) {
+        return transaction.getDueDate() + "/" + transaction.getId();
     }
 
     /**
@@ -163,7 +277,7 @@ public class BorrowingService {
         Member member = memberService.getMemberById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found with id: " + memberId));
 
-        return borrowingRepository.findByMemberAndStatus(member, BorrowingTransaction.TransactionStatus.BORROWED);
+        return borrowingRepository.findOpenByMember(member);
     }
 
     /**
@@ -177,14 +291,27 @@ public class BorrowingService {
         BorrowingTransaction transaction = borrowingRepository.findById(transactionId)
                 .orElseThrow(() -> new RuntimeException("Transaction not found with id: " + transactionId));
 
-        if (transaction.getStatus() != BorrowingTransaction.TransactionStatus.BORROWED) {
+        if (!transaction.isOpen()) {
             throw new RuntimeException("Can only extend due date for active borrowings");
         }
 
-        LocalDate newDueDate = transaction.getDueDate().plusDays(additionalDays);
-        transaction.setDueDate(newDueDate);
+        MemberService.LoanChanges changes = trackChanges(transaction, () -> {
+            LocalDate newDueDate = transaction.getDueDate().plusDays(additionalDays);
+            transaction.setDueDate(newDueDate);
+            // An overdue loan extended into the future is no longer overdue
+            if (transaction.getStatus() == BorrowingTransaction.TransactionStatus.OVERDUE
+                    && !LocalDate.now().isAfter(newDueDate)) {
+                transaction.setStatus(BorrowingTransaction.TransactionStatus.BORROWED);
+            }
+        });
 
-        return borrowingRepository.save(transaction);
+        BorrowingTransaction updatedTransaction = borrowingRepository.save(transaction);
+        if (changes.getOverdue() != 0) {
+            memberService.recordLoanChanges(transaction.getMember().getId(), changes);
+        }
+        logEvent(BorrowingEvent.Type.EXTENDED, updatedTransaction);
+        scheduleReminder(updatedTransaction);
+        return updatedTransaction;
     }
 
     /**
@@ -194,67 +321,59 @@ public class BorrowingService {
         BorrowingTransaction transaction = borrowingRepository.findById(transactionId)
                 .orElseThrow(() -> new RuntimeException("Transaction not found with id: " + transactionId));
 
-        if (transaction.getStatus() == BorrowingTransaction.TransactionStatus.RETURNED) {
-            throw new RuntimeException("Cannot mark returned book as lost");
+        // Returned (on time or late) or already lost: the copy is back on the shelf or already written off
+        if (!transaction.isOpen()) {
+            throw new RuntimeException("Cannot mark a returned or lost book as lost");
         }
 
-        transaction.setStatus(BorrowingTransaction.TransactionStatus.LOST);
-        transaction.setFineAmount(replacementCost);
-        transaction.setReturnDate(LocalDateTime.now());
+        MemberService.LoanChanges changes = trackChanges(transaction, () -> {
+            transaction.setStatus(BorrowingTransaction.TransactionStatus.LOST);
+            transaction.setFineAmount(replacementCost);
+            transaction.setReturnDate(LocalDateTime.now());
+            transaction.setAccruedFine(0.0);
+        });
 
         BorrowingTransaction updatedTransaction = borrowingRepository.save(transaction);
 
-        // Update book availability (book is permanently lost)
-        bookService.updateBookAvailability(transaction.getBook().getId(), 1);
-        // Remove one copy from total since it's lost
-        Book book = transaction.getBook();
-        book.setTotalCopies(book.getTotalCopies() - 1);
+        // Remove one copy from total since it's lost; it was never back on the shelf,
+        // so the available count stays as it is
+        bookService.removeLostCopy(transaction.getBook().getId());
+        memberService.recordLoanChanges(transaction.getMember().getId(), changes);
+        logEvent(BorrowingEvent.Type.LOST, updatedTransaction);
+        cancelReminder(updatedTransaction);
 
         return updatedTransaction;
     }
 
     /**
-     * Get borrowing statistics for a member
+     * Get borrowing statistics for a member, from the totals kept on the member row
      */
+    @Transactional(readOnly = true)
     public BorrowingStats getMemberBorrowingStats(Long memberId) {
         Member member = memberService.getMemberById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found with id: " + memberId));
 
-        Long activeBorrowings = borrowingRepository.countActiveBorrowingsByMember(member);
-
-        // Get all transactions for this member to calculate stats
-        List<BorrowingTransaction> allTransactions = borrowingRepository.findByMemberAndStatus(member, null);
-
-        long totalBorrowings = allTransactions.size();
-        long returnedBooks = allTransactions.stream()
-                .mapToLong(t -> t.getStatus() == BorrowingTransaction.TransactionStatus.RETURNED ? 1 : 0)
-                .sum();
-        long overdueBooks = allTransactions.stream()
-                .mapToLong(t -> t.getStatus() == BorrowingTransaction.TransactionStatus.OVERDUE ? 1 : 0)
-                .sum();
-        double totalFines = allTransactions.stream()
-                .mapToDouble(BorrowingTransaction::getFineAmount)
-                .sum();
-
-        return new BorrowingStats(activeBorrowings, totalBorrowings, returnedBooks, overdueBooks, totalFines);
+        return new BorrowingStats(
+                (long) member.getActiveLoanCount(),
+                member.getTotalLoans(),
+                member.getReturnedLoans(),
+                member.getOverdueLoans(),
+                member.getLostLoans(),
+                member.getTotalFines()
+        );
     }
 
     /**
      * Check if member can borrow more books
      */
     public boolean canMemberBorrowMore(Long memberId) {
-        if (!memberService.isMemberEligibleForBorrowing(memberId)) {
-            return false;
-        }
-
         Member member = memberService.getMemberById(memberId)
                 .orElse(null);
-        if (member == null) {
+        if (member == null || !memberService.isMemberEligibleForBorrowing(member)) {
             return false;
         }
 
-        Long activeBorrowings = borrowingRepository.countActiveBorrowingsByMember(member);
-        return activeBorrowings < MAX_BOOKS_PER_MEMBER;
+        return member.getActiveLoanCount() < MAX_BOOKS_PER_MEMBER;
     }
 
     /**
@@ -264,8 +383,119 @@ public class BorrowingService {
         Member member = memberService.getMemberById(memberId)
                 .orElseThrow(() -> new RuntimeException("Member not found with id: " + memberId));
 
-        Long activeBorrowings = borrowingRepository.countActiveBorrowingsByMember(member);
-        return Math.max(0, MAX_BOOKS_PER_MEMBER - activeBorrowings.intValue());
+        return Math.max(0, MAX_BOOKS_PER_MEMBER - member.getActiveLoanCount());
+    }
+
+    /**
+     * Close a borrowing in memory: stamp the return and charge the fine if it is overdue
+     */
+    public void applyReturn(BorrowingTransaction transaction, SystemUser returnedTo, LocalDateTime returnedAt) {
+        // Calculate fine if overdue
+        LocalDate returnDay = returnedAt.toLocalDate();
+        if (returnDay.isAfter(transaction.getDueDate())) {
+            double fine = finePolicy.fineFor(transaction.getDueDate(), returnDay);
+            transaction.setFineAmount(fine);
+            transaction.setStatus(BorrowingTransaction.TransactionStatus.OVERDUE);
+        }
+
+        // Update transaction; the accrual is settled by the fine amount above
+        transaction.setReturnDate(returnedAt);
+        transaction.setReturnedTo(returnedTo);
+        transaction.setAccruedFine(0.0);
+        if (transaction.getStatus() == BorrowingTransaction.TransactionStatus.BORROWED) {
+            transaction.setStatus(BorrowingTransaction.TransactionStatus.RETURNED);
+        }
+    }
+
+    /**
+     * Apply a change to a transaction and describe its effect on the member's counters
+     */
+    public MemberService.LoanChanges trackChanges(BorrowingTransaction transaction, Runnable change) {
+        BorrowingTransaction.TransactionStatus statusBefore = transaction.getStatus();
+        boolean openBefore = transaction.isOpen();
+        double fineBefore = fineOf(transaction);
+        change.run();
+        return MemberService.LoanChanges.between(statusBefore, openBefore, fineBefore,
+                transaction.getStatus(), transaction.isOpen(), fineOf(transaction));
+    }
+
+    /**
+     * Append a circulation event for the transaction to the event log once the surrounding transaction commits
+     */
+    public void logEvent(BorrowingEvent.Type type, BorrowingTransaction transaction) {
+        if (!eventLog.isEnabled()) {
+            return;
+        }
+        long transactionId = transaction.getId();
+        long bookId = transaction.getBook().getId();
+        long memberId = transaction.getMember().getId();
+        // Due date (epoch day) for borrow and extend events, the amount charged in cents otherwise
+        int value = type == BorrowingEvent.Type.BORROWED || type == BorrowingEvent.Type.EXTENDED
+                ? (int) transaction.getDueDate().toEpochDay()
+                : (int) Math.round(fineOf(transaction) * 100);
+        TransactionHooks.afterCommit(() -> {
+            // The loan is already committed: a failed append must not fail the request or skip the other hooks
+            try {
+                eventLog.append(type, transactionId, bookId, memberId, value);
+            } catch (RuntimeException e) {
+                log.error("Failed to log {} event of transaction {}", type, transactionId, e);
+            }
+        });
+    }
+
+    /**
+     * (Re)schedule the due-date reminder of an open loan once the surrounding transaction commits
+     */
+    private void scheduleReminder(BorrowingTransaction transaction) {
+        long transactionId = transaction.getId();
+        LocalDate dueDate = transaction.getDueDate();
+        TransactionHooks.afterCommit(() -> reminderScheduler.scheduleLoan(transactionId, dueDate));
+    }
+
+    /**
+     * Drop the due-date reminder of a closed loan once the surrounding transaction commits
+     */
+    public void cancelReminder(BorrowingTransaction transaction) {
+        long transactionId = transaction.getId();
+        TransactionHooks.afterCommit(() -> reminderScheduler.cancelLoan(transactionId));
+    }
+
+    private static double fineOf(BorrowingTransaction transaction) {
+        return transaction.getFineAmount() != null ? transaction.getFineAmount() : 0.0;
+    }
+
+    private BorrowingTransaction newTransaction(Book book, Member member, SystemUser issuedBy) {
+        BorrowingTransaction transaction = new BorrowingTransaction();
+        transaction.setBook(book);
+        transaction.setMember(member);
+        transaction.setIssuedBy(issuedBy);
+        transaction.setBorrowDate(LocalDateTime.now());
+        transaction.setDueDate(LocalDate.now().plusDays(DEFAULT_BORROWING_PERIOD_DAYS));
+        transaction.setStatus(BorrowingTransaction.TransactionStatus.BORROWED);
+        transaction.setFineAmount(0.0);
+        return transaction;
+    }
+
+    /**
+     * Inner class for the per-book result of a batch checkout
+     */
+    @Data
+    public static class BatchBorrowingOutcome {
+        private final Long bookId;
+        private final BorrowingTransaction transaction;
+        private final String message;
+
+        public static BatchBorrowingOutcome borrowed(Long bookId, BorrowingTransaction transaction) {
+            return new BatchBorrowingOutcome(bookId, transaction, null);
+        }
+
+        public static BatchBorrowingOutcome rejected(Long bookId, String message) {
+            return new BatchBorrowingOutcome(bookId, null, message);
+        }
+
+        public boolean isBorrowed() {
+            return transaction != null;
+        }
     }
 
     /**
@@ -277,14 +507,16 @@ public class BorrowingService {
         private final Long totalBorrowings;
         private final Long returnedBooks;
         private final Long overdueBooks;
+        private final Long lostBooks;
         private final Double totalFines;
 
         public BorrowingStats(Long activeBorrowings, Long totalBorrowings, Long returnedBooks,
-                              Long overdueBooks, Double totalFines) {
+                              Long overdueBooks, Long lostBooks, Double totalFines) {
             this.activeBorrowings = activeBorrowings;
             this.totalBorrowings = totalBorrowings;
             this.returnedBooks = returnedBooks;
             this.overdueBooks = overdueBooks;
+            this.lostBooks = lostBooks;
             this.totalFines = totalFines;
         }
 
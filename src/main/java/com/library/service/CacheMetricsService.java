@@ -0,0 +1,51 @@
+package com.library.service;
+
+import com.library.dto.CacheRegionStats;
+import org.springframework.stereotype.Service;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Reads the standard JCache statistics beans of the second-level cache regions
+ */
+@Service
+public class CacheMetricsService {
+
+    private static final String STATISTICS_BEANS = "javax.cache:type=CacheStatistics,*";
+
+    private final MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    /**
+     * Hit, miss, put and eviction counters of every cache region, by region name
+     */
+    public List<CacheRegionStats> getRegionStatistics() {
+        List<CacheRegionStats> regions = new ArrayList<>();
+        try {
+            for (ObjectName name : mBeanServer.queryNames(new ObjectName(STATISTICS_BEANS), null)) {
+                regions.add(CacheRegionStats.builder()
+                        .region(name.getKeyProperty("Cache"))
+                        .hits(count(name, "CacheHits"))
+                        .misses(count(name, "CacheMisses"))
+                        .hitPercentage(((Number) mBeanServer.getAttribute(name, "CacheHitPercentage")).doubleValue())
+                        .puts(count(name, "CachePuts"))
+                        .evictions(count(name, "CacheEvictions"))
+                        .removals(count(name, "CacheRemovals"))
+                        .build());
+            }
+        } catch (JMException e) {
+            throw new RuntimeException("Could not read cache statistics", e);
+        }
+        regions.sort(Comparator.comparing(CacheRegionStats::getRegion));
+        return regions;
+    }
+
+    private long count(ObjectName name, String attribute) throws JMException {
+        return ((Number) mBeanServer.getAttribute(name, attribute)).longValue();
+    }
+}
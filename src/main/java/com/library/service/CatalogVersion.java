@@ -0,0 +1,54 @@
+package com.library.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Catalog-wide change counters behind the ETags of catalog reads.
+ * Both are seeded with the clock so tags handed out before a restart never match again.
+ */
+@Component
+public class CatalogVersion {
+
+    // Any change visible in a book listing, including available copies
+    private final AtomicLong catalog = new AtomicLong(System.currentTimeMillis());
+
+    // Changes to authors, publishers and categories, which are embedded in book and category representations
+    private final AtomicLong references = new AtomicLong(System.currentTimeMillis());
+
+    /**
+     * Record a book change once the current transaction commits
+     */
+    public void bookChanged() {
+        TransactionHooks.afterCommit(catalog::incrementAndGet);
+    }
+
+    /**
+     * Record an author, publisher or category change once the current transaction commits
+     */
+    public void referencesChanged() {
+        TransactionHooks.afterCommit(() -> {
+            references.incrementAndGet();
+            catalog.incrementAndGet();
+        });
+    }
+
+    public long references() {
+        return references.get();
+    }
+
+    /**
+     * Strong ETag for book listings
+     */
+    public String catalogETag() {
+        return "\"catalog-" + catalog.get() + "\"";
+    }
+
+    /**
+     * Strong ETag for category listings
+     */
+    public String referencesETag() {
+        return "\"references-" + references.get() + "\"";
+    }
+}
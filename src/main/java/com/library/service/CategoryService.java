@@ -2,6 +2,7 @@ package com.library.service;
 
 import com.library.entity.Category;
 import com.library.repository.CategoryRepository;
+import com.library.search.BookFacetIndex;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -17,7 +18,9 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class CategoryService {
 
-    private CategoryRepository categoryRepository;
+    private final CategoryRepository categoryRepository;
+    private final CatalogVersion catalogVersion;
+    private final BookFacetIndex bookFacetIndex;
 
     /**
      * Retrieve all categories
@@ -71,6 +74,7 @@ public class CategoryService {
             validateParentCategory(category.getParentCategory().getId(), null);
         }
 
+        catalogVersion.referencesChanged();
         return categoryRepository.save(category);
     }
 
@@ -100,6 +104,9 @@ public class CategoryService {
         category.setDescription(categoryDetails.getDescription());
         category.setParentCategory(categoryDetails.getParentCategory());
 
+        catalogVersion.referencesChanged();
+        String name = category.getName();
+        TransactionHooks.afterCommit(() -> bookFacetIndex.renameCategory(id, name));
         return categoryRepository.save(category);
     }
 
@@ -120,7 +127,9 @@ public class CategoryService {
             throw new RuntimeException("Cannot delete category with books. Remove books from category first.");
         }
 
+        catalogVersion.referencesChanged();
         categoryRepository.delete(category);
+        TransactionHooks.afterCommit(() -> bookFacetIndex.removeCategory(id));
     }
 
     /**
@@ -175,6 +184,7 @@ public class CategoryService {
             category.setParentCategory(null); // Move to root level
         }
 
+        catalogVersion.referencesChanged();
         return categoryRepository.save(category);
     }
 
@@ -0,0 +1,66 @@
+package com.library.service;
+
+import com.library.repository.HoldRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Expires ready holds whose copy has been set aside for longer than the pickup window, so the copy goes to the
+ * next hold in the queue or back on the shelf instead of waiting forever. Each hold is expired in its own
+ * transaction; one that was picked up or cancelled in the meantime is left alone.
+ */
+@Slf4j
+@Component
+public class HoldExpirySweeper {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final HoldRepository holdRepository;
+    private final HoldService holdService;
+    private final int pickupDays;
+
+    public HoldExpirySweeper(HoldRepository holdRepository,
+                             HoldService holdService,
+                             @Value("${library.holds.pickup-days:7}") int pickupDays) {
+        this.holdRepository = holdRepository;
+        this.holdService = holdService;
+        this.pickupDays = pickupDays;
+    }
+
+    /**
+     * Expire every ready hold set aside before the pickup window; returns the number expired
+     */
+    @Scheduled(fixedDelayString = "${library.holds.expiry-sweep-ms:3600000}")
+    public int sweep() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(pickupDays);
+        int expired = 0;
+        while (true) {
+            List<Long> due = holdRepository.findReadyBefore(cutoff, Limit.of(BATCH_SIZE));
+            int closed = 0;
+            for (Long holdId : due) {
+                try {
+                    if (holdService.expireReadyHold(holdId)) {
+                        closed++;
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Could not expire ready hold {}: {}", holdId, e.getMessage());
+                }
+            }
+            expired += closed;
+            // Stop when nothing was left, or when a full batch made no progress (every hold failed or raced)
+            if (due.size() < BATCH_SIZE || closed == 0) {
+                break;
+            }
+        }
+        if (expired > 0) {
+            log.info("Expired {} ready holds not picked up within {} days", expired, pickupDays);
+        }
+        return expired;
+    }
+}
@@ -0,0 +1,241 @@
+package com.library.service;
+
+import com.library.entity.Book;
+import com.library.entity.Hold;
+import com.library.entity.Hold.HoldStatus;
+import com.library.entity.Member;
+import com.library.hold.HoldQueues;
+import com.library.repository.HoldRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Holds on books that are out. Waiting holds are kept in per-book FIFO queues in memory ({@link HoldQueues}),
+ * rebuilt from the holds table at startup; a returned copy is set aside for the hold at the front of its queue
+ * instead of going back on the shelf, and the member picks it up with a normal checkout. A copy that is not
+ * picked up in time is released by {@link HoldExpirySweeper}.
+ */
+@Slf4j
+@Service
+@Transactional
+@RequiredArgsConstructor
+public class HoldService {
+
+    private static final List<HoldStatus> LIVE = List.of(HoldStatus.WAITING, HoldStatus.READY);
+
+    private final HoldRepository holdRepository;
+    private final HoldQueues holdQueues;
+    private final BookService bookService;
+    private final MemberService memberService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadQueues() {
+        holdQueues.clear();
+        List<Object[]> live = holdRepository.findLive(LIVE);
+        for (Object[] row : live) {
+            Long holdId = (Long) row[0];
+            Long bookId = (Long) row[1];
+            Long memberId = (Long) row[2];
+            if (row[3] == HoldStatus.READY) {
+                holdQueues.markReady(bookId, memberId, holdId);
+            } else {
+                holdQueues.enqueue(bookId, holdId, memberId);
+            }
+        }
+        log.info("Loaded {} live holds into the hold queues", live.size());
+    }
+
+    /**
+     * Place a hold for a member on a book that has no copy on the shelf
+     */
+    public Hold placeHold(Long bookId, Long memberId) {
+        Book book = bookService.getBookById(bookId)
+                .orElseThrow(() -> new RuntimeException("Book not found with id: " + bookId));
+        if (book.isAvailable()) {
+            throw new RuntimeException("Book is available for borrowing");
+        }
+
+        Member member = memberService.getMemberById(memberId)
+                .orElseThrow(() -> new RuntimeException("Member not found with id: " + memberId));
+        if (!memberService.isMemberEligibleForBorrowing(member)) {
+            throw new RuntimeException("Member is not eligible for borrowing (inactive or expired membership)");
+        }
+
+        if (holdRepository.existsByBookIdAndMemberIdAndStatusIn(bookId, memberId, LIVE)) {
+            throw new RuntimeException("Member already has a hold on this book");
+        }
+
+        Hold hold;
+        try {
+            // The unique live key catches a concurrent request that passed the check above at the same time
+            hold = holdRepository.saveAndFlush(new Hold(book, member));
+        } catch (DataIntegrityViolationException e) {
+            throw new RuntimeException("Member already has a hold on this book");
+        }
+        Long holdId = hold.getId();
+        TransactionHooks.afterCommit(() -> holdQueues.enqueue(bookId, holdId, memberId));
+        return hold;
+    }
+
+    /**
+     * Cancel a hold; a copy already set aside for it goes to the next hold, or back on the shelf
+     */
+    public void cancelHold(Long id) {
+        Hold hold = holdRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Hold not found with id: " + id));
+        Long bookId = hold.getBook().getId();
+        Long memberId = hold.getMember().getId();
+        LocalDateTime now = LocalDateTime.now();
+
+        switch (hold.getStatus()) {
+            case WAITING -> {
+                if (holdRepository.close(id, HoldStatus.WAITING, HoldStatus.CANCELLED, now) == 0) {
+                    throw new RuntimeException("Hold is no longer waiting");
+                }
+                TransactionHooks.afterCommit(() -> holdQueues.remove(id));
+            }
+            case READY -> {
+                if (!releaseReady(id, bookId, memberId, HoldStatus.CANCELLED, now)) {
+                    throw new RuntimeException("Hold has already been picked up or cancelled");
+                }
+            }
+            default -> throw new RuntimeException("Hold is already closed");
+        }
+    }
+
+    /**
+     * Expire a ready hold that was not picked up in time; its copy goes to the next hold, or back on the shelf.
+     * False when the hold was picked up or cancelled in the meantime
+     */
+    public boolean expireReadyHold(Long id) {
+        Hold hold = holdRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Hold not found with id: " + id));
+        return hold.getStatus() == HoldStatus.READY
+                && releaseReady(id, hold.getBook().getId(), hold.getMember().getId(), HoldStatus.EXPIRED,
+                LocalDateTime.now());
+    }
+
+    private boolean releaseReady(Long id, Long bookId, Long memberId, HoldStatus to, LocalDateTime now) {
+        if (holdRepository.close(id, HoldStatus.READY, to, now) == 0) {
+            return false;
+        }
+        holdQueues.takeReady(bookId, memberId, id);
+        TransactionHooks.afterRollback(() -> holdQueues.markReady(bookId, memberId, id));
+        if (!handOver(bookId)) {
+            bookService.updateBookAvailability(bookId, 1);
+        }
+        return true;
+    }
+
+    /**
+     * Add copies to a book, setting them aside for its waiting holds first (in queue order) like returned copies,
+     * so walk-ins cannot jump the queue; only the rest go on the shelf
+     */
+    public Book addCopies(Long bookId, int copies) {
+        if (copies <= 0) {
+            throw new RuntimeException("Additional copies must be positive");
+        }
+        return bookService.addCopies(bookId, copies, handOver(bookId, copies));
+    }
+
+    /**
+     * Set a returned copy aside for the next hold on the book; false when nobody is waiting
+     */
+    public boolean handOver(Long bookId) {
+        return handOver(bookId, 1) == 1;
+    }
+
+    /**
+     * Set up to {@code copies} returned copies aside for the next holds on the book, in queue order;
+     * returns the number of copies handed over, the rest are for the shelf
+     */
+    public int handOver(Long bookId, int copies) {
+        List<HoldQueues.HoldEntry> handed = new ArrayList<>(copies);
+        LocalDateTime now = LocalDateTime.now();
+        while (handed.size() < copies) {
+            Optional<HoldQueues.HoldEntry> next = holdQueues.poll(bookId);
+            if (next.isEmpty()) {
+                break;
+            }
+            HoldQueues.HoldEntry entry = next.get();
+            // 0 when the hold was cancelled after it was queued; it is simply dropped
+            if (holdRepository.markReady(entry.holdId(), HoldStatus.WAITING, HoldStatus.READY, now) == 1) {
+                handed.add(entry);
+            }
+        }
+        if (handed.isEmpty()) {
+            return 0;
+        }
+
+        TransactionHooks.afterCommit(() ->
+                handed.forEach(entry -> holdQueues.markReady(bookId, entry.memberId(), entry.holdId())));
+        TransactionHooks.afterRollback(() -> {
+            // Back to the front in their original order
+            for (int i = handed.size() - 1; i >= 0; i--) {
+                holdQueues.requeueFirst(bookId, handed.get(i));
+            }
+        });
+        return handed.size();
+    }
+
+    /**
+     * Close the member's ready hold on the book, if any, so the copy set aside for it can be lent out;
+     * free (no statement) when the member has no copy waiting
+     */
+    public boolean fulfillReadyHold(Long bookId, Long memberId) {
+        Long holdId = holdQueues.readyHold(bookId, memberId);
+        if (holdId == null || !holdQueues.takeReady(bookId, memberId, holdId)) {
+            return false;
+        }
+        if (holdRepository.close(holdId, HoldStatus.READY, HoldStatus.FULFILLED, LocalDateTime.now()) == 0) {
+            // Cancelled in the meantime; its copy went elsewhere
+            return false;
+        }
+        TransactionHooks.afterRollback(() -> holdQueues.markReady(bookId, memberId, holdId));
+        return true;
+    }
+
+    /**
+     * Whether a copy of the book is set aside for the member (in memory)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public boolean hasReadyHold(Long bookId, Long memberId) {
+        return holdQueues.readyHold(bookId, memberId) != null;
+    }
+
+    /**
+     * Holds of a member, newest first
+     */
+    @Transactional(readOnly = true)
+    public List<Hold> getHoldsByMember(Long memberId) {
+        return holdRepository.findByMemberIdOrderByIdDesc(memberId);
+    }
+
+    /**
+     * Holds waiting for a book, front of the queue first (in memory)
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<HoldQueues.HoldEntry> getQueue(Long bookId) {
+        return holdQueues.waiting(bookId);
+    }
+
+    /**
+     * Position of a waiting hold in its book's queue (in memory); empty when the hold is not waiting
+     */
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<HoldQueues.QueuePosition> getQueuePosition(Long holdId) {
+        return holdQueues.position(holdId);
+    }
+}
@@ -0,0 +1,88 @@
+package com.library.service;
+
+import com.library.entity.BorrowingTransaction;
+import com.library.entity.Member;
+import com.library.repository.BorrowingTransactionRepository;
+import com.library.repository.MemberRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks the members' active loan counters and borrowing totals against the borrowing transactions table and
+ * rebuilds any member that drifted. Runs at startup (which also backfills the totals for existing data) and
+ * nightly; members are compared in id windows with one grouped query per window.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MemberBorrowingStatsReconciler {
+
+    private static final long WINDOW_SIZE = 1000;
+
+    private final MemberRepository memberRepository;
+    private final BorrowingTransactionRepository borrowingRepository;
+    private final MemberService memberService;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcileOnStartup() {
+        reconcile();
+    }
+
+    /**
+     * Rebuild the members whose counters disagree with the borrowing transactions table
+     */
+    @Scheduled(cron = "${library.members.stats-reconcile-cron:0 30 3 * * *}")
+    public int reconcile() {
+        long start = System.currentTimeMillis();
+        Long maxId = memberRepository.findMaxId();
+        if (maxId == null) {
+            return 0;
+        }
+
+        int repaired = 0;
+        for (long after = 0; after < maxId; after += WINDOW_SIZE) {
+            List<Long> drifted = findDrift(after, after + WINDOW_SIZE);
+            if (drifted.isEmpty()) {
+                continue;
+            }
+            log.warn("Borrowing totals out of step for {} members with ids in ({}, {}]",
+                    drifted.size(), after, after + WINDOW_SIZE);
+            for (Long memberId : drifted) {
+                // Each rebuild locks and rewrites one member in its own transaction
+                memberService.rebuildBorrowingStats(memberId);
+                repaired++;
+            }
+        }
+
+        log.info("Reconciled borrowing totals up to member {} in {} ms, {} repaired",
+                maxId, System.currentTimeMillis() - start, repaired);
+        return repaired;
+    }
+
+    private List<Long> findDrift(long after, long upTo) {
+        Map<Long, MemberService.BorrowingTotals> totalsByMember = new HashMap<>();
+        for (Object[] row : borrowingRepository.summarizeByMemberAndStatus(after, upTo)) {
+            totalsByMember.computeIfAbsent((Long) row[0], id -> new MemberService.BorrowingTotals())
+                    .add((BorrowingTransaction.TransactionStatus) row[1], (Long) row[2], (Long) row[3], (Double) row[4]);
+        }
+
+        List<Long> drifted = new ArrayList<>();
+        for (Member member : memberRepository.findIdWindow(after, upTo)) {
+            MemberService.BorrowingTotals totals =
+                    totalsByMember.getOrDefault(member.getId(), new MemberService.BorrowingTotals());
+            if (!totals.matches(member)) {
+                drifted.add(member.getId());
+            }
+        }
+        return drifted;
+    }
+}
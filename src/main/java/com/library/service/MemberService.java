@@ -1,23 +1,45 @@
 package com.library.service;
 
+import com.library.dto.CursorPage;
+import com.library.entity.BorrowingTransaction;
 import com.library.entity.Member;
+import com.library.member.MembershipIdAllocator;
+import com.library.reminder.ReminderScheduler;
+import com.library.repository.BorrowingTransactionRepository;
 import com.library.repository.MemberRepository;
+import com.library.search.MemberDocument;
+import com.library.search.MemberTrigramIndex;
+import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
+@Slf4j
 @Service
 @Transactional
 @RequiredArgsConstructor
 public class MemberService {
 
     private final MemberRepository memberRepository;
+    private final BorrowingTransactionRepository borrowingRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final ReminderScheduler reminderScheduler;
+    private final MemberTrigramIndex memberTrigramIndex;
+    private final MembershipIdAllocator membershipIdAllocator;
 
     /**
      * Retrieve all members with pagination
@@ -26,6 +48,15 @@ public class MemberService {
         return memberRepository.findAll(pageable);
     }
 
+    /**
+     * Retrieve the members that follow the given cursor, in id order, without a count query
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Member> getMembersAfter(String after, int size) {
+        List<Member> rows = memberRepository.findByIdGreaterThanOrderByIdAsc(CursorPage.decode(after), Limit.of(size + 1));
+        return CursorPage.of(rows, size, Member::getId);
+    }
+
     /**
      * Find member by ID
      */
@@ -51,8 +82,8 @@ public class MemberService {
      * Create a new member
      */
     public Member createMember(Member member) {
-        // Validate unique constraints
-        if (memberRepository.existsByMembershipId(member.getMembershipId())) {
+        // Validate unique constraints; allocated membership ids are unique by construction
+        if (member.getMembershipId() != null && memberRepository.existsByMembershipId(member.getMembershipId())) {
             throw new RuntimeException("Membership ID already exists: " + member.getMembershipId());
         }
         if (memberRepository.existsByEmail(member.getEmail())) {
@@ -69,8 +100,17 @@ public class MemberService {
         if (member.getStatus() == null) {
             member.setStatus(Member.MembershipStatus.ACTIVE);
         }
+        if (member.getMembershipId() == null) {
+            member.setMembershipId(membershipIdAllocator.nextId());
+        }
 
-        return memberRepository.save(member);
+        Member savedMember = memberRepository.save(member);
+        scheduleExpiryReminder(savedMember);
+        if (memberTrigramIndex.isEnabled()) {
+            MemberDocument document = MemberDocument.from(savedMember);
+            TransactionHooks.afterCommit(() -> memberTrigramIndex.index(document));
+        }
+        return savedMember;
     }
 
     /**
@@ -79,6 +119,7 @@ public class MemberService {
     public Member updateMember(Long id, Member memberDetails) {
         Member member = memberRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Member not found with id: " + id));
+        MemberDocument previous = MemberDocument.from(member);
 
         // Update fields
         member.setFirstName(memberDetails.getFirstName());
@@ -90,7 +131,13 @@ public class MemberService {
         member.setMembershipExpiry(memberDetails.getMembershipExpiry());
         member.setStatus(memberDetails.getStatus());
 
-        return memberRepository.save(member);
+        Member savedMember = memberRepository.save(member);
+        scheduleExpiryReminder(savedMember);
+        if (memberTrigramIndex.isEnabled()) {
+            MemberDocument current = MemberDocument.from(savedMember);
+            TransactionHooks.afterCommit(() -> memberTrigramIndex.replace(previous, current));
+        }
+        return savedMember;
     }
 
     /**
@@ -100,14 +147,44 @@ public class MemberService {
         Member member = memberRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Member not found with id: " + id));
 
+        MemberDocument previous = MemberDocument.from(member);
         memberRepository.delete(member);
+        TransactionHooks.afterCommit(() -> {
+            reminderScheduler.cancelMembership(id);
+            if (memberTrigramIndex.isEnabled()) {
+                memberTrigramIndex.remove(previous);
+            }
+        });
     }
 
     /**
-     * Search members by name (first name or last name, case-insensitive)
+     * Fuzzy search over member names, email, phone number and membership id, best match first.
+     * Falls back to a case-insensitive name match in the database when the member index is disabled.
      */
+    @Transactional(readOnly = true)
     public Page<Member> searchMembersByName(String name, Pageable pageable) {
-        return memberRepository.findByNameContainingIgnoreCase(name, pageable);
+        if (!memberTrigramIndex.isEnabled()) {
+            return memberRepository.findByNameContainingIgnoreCase(name, pageable);
+        }
+        MemberTrigramIndex.SearchHits hits = memberTrigramIndex.search(
+                name, (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(findAllInOrder(hits.memberIds()), pageable, hits.total());
+    }
+
+    /**
+     * Load members by id, keeping the order of the given ids
+     */
+    private List<Member> findAllInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Long, Integer> positions = new HashMap<>();
+        for (int i = 0; i < ids.size(); i++) {
+            positions.put(ids.get(i), i);
+        }
+        return memberRepository.findAllById(ids).stream()
+                .sorted(Comparator.comparing(member -> positions.get(member.getId())))
+                .toList();
     }
 
     /**
@@ -153,11 +230,95 @@ public class MemberService {
      */
     public boolean isMemberEligibleForBorrowing(Long memberId) {
         return memberRepository.findById(memberId)
-                .map(member -> member.getStatus() == Member.MembershipStatus.ACTIVE &&
-                        member.getMembershipExpiry().isAfter(LocalDate.now()))
+                .map(this::isMemberEligibleForBorrowing)
                 .orElse(false);
     }
 
+    /**
+     * Check if an already loaded member is eligible to borrow books
+     */
+    public boolean isMemberEligibleForBorrowing(Member member) {
+        return member.getStatus() == Member.MembershipStatus.ACTIVE &&
+                member.getMembershipExpiry().isAfter(LocalDate.now());
+    }
+
+    /**
+     * Take loan slots for an eligible member in one guarded update; false when the member is missing,
+     * not eligible or would go over the limit
+     */
+    public boolean reserveLoans(Long memberId, int loans, int limit) {
+        return memberRepository.reserveLoans(memberId, loans, limit, LocalDate.now()) == 1;
+    }
+
+    /**
+     * Apply loan state changes to a member's active loan counter and borrowing totals in one update
+     */
+    public void recordLoanChanges(Long memberId, LoanChanges changes) {
+        if (memberRepository.recordLoanChanges(memberId, changes.getClosed(), changes.getReturned(),
+                changes.getOverdue(), changes.getLost(), changes.getFines()) == 0) {
+            log.warn("Borrowing totals of missing member {} not updated", memberId);
+        }
+    }
+
+    /**
+     * Apply loan state changes for several members at once, one batched statement for all of them
+     */
+    public void recordLoanChanges(Map<Long, LoanChanges> changesByMember) {
+        if (changesByMember.isEmpty()) {
+            return;
+        }
+        List<Long> memberIds = List.copyOf(changesByMember.keySet());
+        List<Object[]> rows = new ArrayList<>(memberIds.size());
+        for (Long memberId : memberIds) {
+            LoanChanges changes = changesByMember.get(memberId);
+            rows.add(new Object[]{changes.getClosed(), changes.getClosed(), changes.getReturned(),
+                    changes.getOverdue(), changes.getLost(), changes.getFines(), memberId});
+        }
+        int[] updated = jdbcTemplate.batchUpdate(
+                "UPDATE members SET active_loan_count = " +
+                        "CASE WHEN active_loan_count >= ? THEN active_loan_count - ? ELSE 0 END, " +
+                        "returned_loans = returned_loans + ?, overdue_loans = overdue_loans + ?, " +
+                        "lost_loans = lost_loans + ?, total_fines = total_fines + ? WHERE id = ?",
+                rows);
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] == 0) {
+                log.warn("Borrowing totals of missing member {} not updated", memberIds.get(i));
+            }
+        }
+    }
+
+    /**
+     * Recompute a member's loan counter and borrowing totals from the transactions table with one
+     * GROUP BY status query; the member row stays locked meanwhile so no concurrent change is lost
+     */
+    public void rebuildBorrowingStats(Long memberId) {
+        memberRepository.findByIdForUpdate(memberId)
+                .orElseThrow(() -> new RuntimeException("Member not found with id: " + memberId));
+
+        BorrowingTotals totals = new BorrowingTotals();
+        for (Object[] row : borrowingRepository.summarizeByStatus(memberId)) {
+            totals.add((BorrowingTransaction.TransactionStatus) row[0], (Long) row[1], (Long) row[2], (Double) row[3]);
+        }
+        memberRepository.overwriteBorrowingStats(memberId, (int) totals.getActive(), totals.getTotal(),
+                totals.getReturned(), totals.getOverdue(), totals.getLost(), totals.getFines());
+    }
+
+    /**
+     * Keep the member's expiry reminder in step with their status and expiry date once the transaction commits
+     */
+    private void scheduleExpiryReminder(Member member) {
+        Long memberId = member.getId();
+        LocalDate expiry = member.getMembershipExpiry();
+        boolean active = member.getStatus() == Member.MembershipStatus.ACTIVE;
+        TransactionHooks.afterCommit(() -> {
+            if (active) {
+                reminderScheduler.scheduleMembership(memberId, expiry);
+            } else {
+                reminderScheduler.cancelMembership(memberId);
+            }
+        });
+    }
+
     /**
      * Get total member count
      */
@@ -171,4 +332,97 @@ public class MemberService {
     public long getMemberCountByStatus(Member.MembershipStatus status) {
         return memberRepository.findByStatus(status).size();
     }
+
+    /**
+     * Inner class for the effect of loans changing state on a member's counters
+     */
+    @Data
+    public static class LoanChanges {
+        private int closed;
+        private int returned;
+        private int overdue;
+        private int lost;
+        private double fines;
+
+        /**
+         * Changes caused by one loan going from one state (status, still out or not, fine) to another
+         */
+        public static LoanChanges between(BorrowingTransaction.TransactionStatus before, boolean openBefore,
+                                          double fineBefore, BorrowingTransaction.TransactionStatus after,
+                                          boolean openAfter, double fineAfter) {
+            LoanChanges changes = new LoanChanges();
+            changes.count(before, -1);
+            changes.count(after, 1);
+            changes.closed = (openBefore ? 1 : 0) - (openAfter ? 1 : 0);
+            changes.fines = fineAfter - fineBefore;
+            return changes;
+        }
+
+        /**
+         * Changes caused by open loans becoming overdue
+         */
+        public static LoanChanges becameOverdue(int loans) {
+            LoanChanges changes = new LoanChanges();
+            changes.overdue = loans;
+            return changes;
+        }
+
+        public void add(LoanChanges other) {
+            closed += other.closed;
+            returned += other.returned;
+            overdue += other.overdue;
+            lost += other.lost;
+            fines += other.fines;
+        }
+
+        private void count(BorrowingTransaction.TransactionStatus status, int change) {
+            switch (status) {
+                case BORROWED -> {
+                    // Only tracked through the open loan counter
+                }
+                case RETURNED -> returned += change;
+                case OVERDUE -> overdue += change;
+                case LOST -> lost += change;
+            }
+        }
+    }
+
+    /**
+     * Inner class for a member's borrowing totals as recomputed from the transactions table
+     */
+    @Data
+    public static class BorrowingTotals {
+        private long active;
+        private long total;
+        private long returned;
+        private long overdue;
+        private long lost;
+        private double fines;
+
+        public void add(BorrowingTransaction.TransactionStatus status, long count, Long open, Double statusFines) {
+            total += count;
+            active += open != null ? open : 0;
+            fines += statusFines != null ? statusFines : 0.0;
+            switch (status) {
+                case BORROWED -> {
+                    // Counted through the open loans
+                }
+                case RETURNED -> returned += count;
+                case OVERDUE -> overdue += count;
+                case LOST -> lost += count;
+            }
+        }
+
+        /**
+         * Whether the totals kept on the member agree with these (fines to the cent)
+         */
+        public boolean matches(Member member) {
+            return member.getActiveLoanCount() == active
+                    && member.getTotalLoans() == total
+                    && member.getReturnedLoans() == returned
+                    && member.getOverdueLoans() == overdue
+                    && member.getLostLoans() == lost
+                    && Math.abs(member.getTotalFines() - fines) < 0.005;
+        }
+    }
 }
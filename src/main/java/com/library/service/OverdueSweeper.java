@@ -0,0 +1,90 @@
+package com.library.service;
+
+import com.library.entity.BorrowingTransaction;
+import com.library.repository.BorrowingTransactionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moves borrowed loans past their due date to OVERDUE in the background, so overdue loans can be listed
+ * straight from the (status, return date, due date) index. Loans are swept oldest due date first in
+ * bounded batches, each batch in its own short transaction.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OverdueSweeper {
+
+    private static final int BATCH_SIZE = 1000;
+
+    private final BorrowingTransactionRepository borrowingRepository;
+    private final MemberService memberService;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Flag every borrowed loan due before today as overdue
+     */
+    @Scheduled(fixedDelayString = "${library.borrowings.overdue-sweep-ms:900000}")
+    public int sweep() {
+        long start = System.currentTimeMillis();
+        LocalDate today = LocalDate.now();
+        int swept = 0;
+        while (true) {
+            // Stop only once no due loan is left: a batch whose loans all changed concurrently marks none
+            // but says nothing about the loans after it
+            Batch batch = transactionTemplate.execute(status -> sweepBatch(today));
+            if (batch == null || batch.due() == 0) {
+                break;
+            }
+            swept += batch.marked();
+        }
+        if (swept > 0) {
+            log.info("Marked {} loans overdue in {} ms", swept, System.currentTimeMillis() - start);
+        }
+        return swept;
+    }
+
+    private Batch sweepBatch(LocalDate today) {
+        List<Object[]> due = borrowingRepository.findDueBefore(today, Limit.of(BATCH_SIZE));
+        if (due.isEmpty()) {
+            return new Batch(0, 0);
+        }
+
+        List<Long> ids = new ArrayList<>(due.size());
+        Map<Long, Integer> loansByMember = new HashMap<>();
+        for (Object[] row : due) {
+            ids.add((Long) row[0]);
+            loansByMember.merge((Long) row[1], 1, Integer::sum);
+        }
+        int marked = borrowingRepository.markOverdue(ids,
+                BorrowingTransaction.TransactionStatus.BORROWED, BorrowingTransaction.TransactionStatus.OVERDUE);
+        if (marked != ids.size()) {
+            // Some loans were returned or extended in between; recount their members rather than guess
+            log.debug("{} of {} loans changed while being swept", ids.size() - marked, ids.size());
+            loansByMember.keySet().forEach(memberService::rebuildBorrowingStats);
+            return new Batch(ids.size(), marked);
+        }
+
+        Map<Long, MemberService.LoanChanges> changesByMember = new HashMap<>();
+        loansByMember.forEach((memberId, loans) ->
+                changesByMember.put(memberId, MemberService.LoanChanges.becameOverdue(loans)));
+        memberService.recordLoanChanges(changesByMember);
+        return new Batch(ids.size(), marked);
+    }
+
+    /**
+     * Loans found due in one batch, and how many of them were marked overdue
+     */
+    private record Batch(int due, int marked) {
+    }
+}
@@ -1,9 +1,12 @@
 package com.library.service;
 
+import com.library.dto.CursorPage;
 import com.library.entity.Publisher;
 import com.library.repository.PublisherRepository;
+import com.library.search.BookFacetIndex;
 import lombok.Data;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -19,6 +22,8 @@ import java.util.regex.Pattern;
 public class PublisherService {
 
     private final PublisherRepository publisherRepository;
+    private final CatalogVersion catalogVersion;
+    private final BookFacetIndex bookFacetIndex;
 
     // Pattern for basic email validation
     private static final Pattern EMAIL_PATTERN = Pattern.compile("^[A-Za-z0-9+_.-]+@(.+)$");
@@ -33,6 +38,16 @@ public class PublisherService {
         return publisherRepository.findAll(pageable);
     }
 
+    /**
+     * Retrieve the publishers that follow the given cursor, in id order, without a count query
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Publisher> getPublishersAfter(String after, int size) {
+        List<Publisher> rows = publisherRepository.findByIdGreaterThanOrderByIdAsc(
+                CursorPage.decode(after), Limit.of(size + 1));
+        return CursorPage.of(rows, size, Publisher::getId);
+    }
+
     /**
      * Find publisher by ID
      */
@@ -59,6 +74,7 @@ public class PublisherService {
         // Validate publisher data
         validatePublisherData(publisher);
 
+        catalogVersion.referencesChanged();
         return publisherRepository.save(publisher);
     }
 
@@ -84,6 +100,9 @@ public class PublisherService {
         publisher.setWebsite(publisherDetails.getWebsite());
         publisher.setContactEmail(publisherDetails.getContactEmail());
 
+        catalogVersion.referencesChanged();
+        String name = publisher.getName();
+        TransactionHooks.afterCommit(() -> bookFacetIndex.renamePublisher(id, name));
         return publisherRepository.save(publisher);
     }
 
@@ -99,7 +118,9 @@ public class PublisherService {
             throw new RuntimeException("Cannot delete publisher who has books. Remove books first or reassign to other publishers.");
         }
 
+        catalogVersion.referencesChanged();
         publisherRepository.delete(publisher);
+        TransactionHooks.afterCommit(() -> bookFacetIndex.removePublisher(id));
     }
 
     /**
@@ -260,6 +281,7 @@ public class PublisherService {
         publisher.setWebsite(website);
         publisher.setAddress(address);
 
+        catalogVersion.referencesChanged();
         return publisherRepository.save(publisher);
     }
 
@@ -321,6 +343,7 @@ public class PublisherService {
         }
 
         // Save primary publisher and delete secondary
+        catalogVersion.referencesChanged();
         Publisher mergedPublisher = publisherRepository.save(primaryPublisher);
         publisherRepository.delete(secondaryPublisher);
 
@@ -0,0 +1,165 @@
+package com.library.admission;
+
+import com.library.dto.AdmissionStats;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives database work through an admission gate sized to the connection pool, comparing request latency on a
+ * platform thread pool with a thread per task on virtual threads, and checks that a flood of reporting work
+ * cannot starve circulation.
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+class AdmissionGateLoadTest {
+
+    // Matches spring.datasource.hikari.maximum-pool-size of the test profile
+    private static final int POOL_SIZE = 16;
+    private static final int REQUESTS = 2000;
+    private static final int PLATFORM_THREADS = 200;
+    private static final long WORK_MS = 2;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void platformAndVirtualThreadsServeEveryRequest() throws Exception {
+        // Warm up the pool and the query path before measuring
+        run(Executors.newFixedThreadPool(PLATFORM_THREADS), newGate(), 200);
+
+        AdmissionGate platformGate = newGate();
+        long[] platform = run(Executors.newFixedThreadPool(PLATFORM_THREADS), platformGate, REQUESTS);
+        AdmissionGate virtualGate = newGate();
+        long[] virtual = run(Executors.newVirtualThreadPerTaskExecutor(), virtualGate, REQUESTS);
+
+        log.info("Platform threads ({}): p50 {} ms, p99 {} ms", PLATFORM_THREADS,
+                String.format("%.2f", percentile(platform, 50)), String.format("%.2f", percentile(platform, 99)));
+        log.info("Virtual threads: p50 {} ms, p99 {} ms",
+                String.format("%.2f", percentile(virtual, 50)), String.format("%.2f", percentile(virtual, 99)));
+
+        assertEquals(REQUESTS, platform.length);
+        assertEquals(REQUESTS, virtual.length);
+        assertEquals(0, rejected(platformGate));
+        assertEquals(0, rejected(virtualGate));
+    }
+
+    @Test
+    void reportingFloodDoesNotStarveCirculation() throws Exception {
+        AdmissionGate gate = newGate();
+        int reportingPermits = 2;
+        AtomicInteger reportingNow = new AtomicInteger();
+        AtomicInteger reportingPeak = new AtomicInteger();
+        AtomicInteger circulationDone = new AtomicInteger();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 500; i++) {
+                futures.add(executor.submit(() -> {
+                    try (AdmissionGate.Permit permit = gate.tryAdmit(AdmissionGate.Group.REPORTING)) {
+                        if (permit == null) {
+                            return null;
+                        }
+                        reportingPeak.accumulateAndGet(reportingNow.incrementAndGet(), Math::max);
+                        work();
+                        reportingNow.decrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            for (int i = 0; i < 200; i++) {
+                futures.add(executor.submit(() -> {
+                    try (AdmissionGate.Permit permit = gate.tryAdmit(AdmissionGate.Group.CIRCULATION)) {
+                        if (permit != null) {
+                            work();
+                            circulationDone.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+
+        assertTrue(reportingPeak.get() <= reportingPermits, "reporting ran " + reportingPeak.get() + " at once");
+        assertEquals(200, circulationDone.get());
+        assertEquals(0, gate.getStatistics().stream()
+                .filter(stats -> stats.getGroup().equals("CIRCULATION"))
+                .findFirst().orElseThrow().getRejected());
+    }
+
+    private AdmissionGate newGate() {
+        return new AdmissionGate(true, POOL_SIZE, 3, 2, 30000);
+    }
+
+    // Latency of each request in nanoseconds, sorted, including time spent waiting at the gate
+    private long[] run(ExecutorService executor, AdmissionGate gate, int requests) throws Exception {
+        long[] latencies = new long[requests];
+        try (executor) {
+            List<Future<?>> futures = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                int index = i;
+                long submitted = System.nanoTime();
+                AdmissionGate.Group group = i % 10 == 0 ? AdmissionGate.Group.REPORTING
+                        : i % 2 == 0 ? AdmissionGate.Group.CIRCULATION : AdmissionGate.Group.GENERAL;
+                futures.add(executor.submit(() -> {
+                    try (AdmissionGate.Permit permit = gate.tryAdmit(group)) {
+                        if (permit == null) {
+                            throw new IllegalStateException("Request turned away at the gate");
+                        }
+                        work();
+                    }
+                    latencies[index] = System.nanoTime() - submitted;
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        Arrays.sort(latencies);
+        return latencies;
+    }
+
+    // A short query holding a connection for a little while, like a typical request
+    private void work() {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books", Long.class);
+            try {
+                Thread.sleep(WORK_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    private static long rejected(AdmissionGate gate) {
+        return gate.getStatistics().stream().mapToLong(AdmissionStats::getRejected).sum();
+    }
+
+    private static double percentile(long[] sorted, int percentile) {
+        int index = Math.min(sorted.length - 1, (int) Math.ceil(percentile / 100.0 * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,74 @@
+package com.library.eventlog;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Folding events into the counters, and the snapshot encoding round trip.
+ */
+class CirculationStateTest {
+
+    @Test
+    void foldsEveryEventType() {
+        CirculationState state = new CirculationState();
+        state.apply(BorrowingEvent.Type.BORROWED.code, 1, 10, 0);
+        state.apply(BorrowingEvent.Type.BORROWED.code, 1, 11, 0);
+        state.apply(BorrowingEvent.Type.EXTENDED.code, 1, 10, 0);
+        state.apply(BorrowingEvent.Type.RETURNED.code, 1, 10, 125);
+        state.apply(BorrowingEvent.Type.LOST.code, 1, 11, 3_000);
+
+        assertEquals(5, state.getSequence());
+        CirculationState.BookCirculation book = state.book(1);
+        assertEquals(2, book.getLoans());
+        assertEquals(1, book.getReturns());
+        assertEquals(1, book.getExtensions());
+        assertEquals(1, book.getLost());
+        assertEquals(0, book.getOnLoan());
+        assertEquals(125, state.member(10).getFineCents());
+        assertEquals(3_000, state.member(11).getFineCents());
+        assertThrows(IllegalStateException.class, () -> state.apply(9, 1, 10, 0));
+    }
+
+    @Test
+    void snapshotRoundTripKeepsSequenceAndCounters() throws Exception {
+        CirculationState state = new CirculationState();
+        for (long bookId = 1; bookId <= 50; bookId++) {
+            state.apply(BorrowingEvent.Type.BORROWED.code, bookId, bookId % 7, 0);
+        }
+        state.apply(BorrowingEvent.Type.RETURNED.code, 3, 3, 40);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            state.writeTo(out);
+        }
+        CirculationState read = CirculationState.readFrom(
+                new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(51, read.getSequence());
+        assertEquals(50, read.getBookCount());
+        assertEquals(7, read.getMemberCount());
+        assertEquals(state.book(3), read.book(3));
+        assertEquals(state.member(3), read.member(3));
+        assertEquals(40, read.member(3).getFineCents());
+    }
+
+    @Test
+    void copyIsIndependentOfTheLiveState() {
+        CirculationState state = new CirculationState();
+        state.apply(BorrowingEvent.Type.BORROWED.code, 1, 10, 0);
+        CirculationState copy = state.copy();
+
+        state.apply(BorrowingEvent.Type.BORROWED.code, 1, 10, 0);
+
+        assertEquals(1, copy.getSequence());
+        assertEquals(1, copy.book(1).getLoans());
+        assertEquals(2, state.book(1).getLoans());
+    }
+}
@@ -0,0 +1,159 @@
+package com.library.eventlog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Segment rolling, reopening the log where it left off, and rebuilding the circulation state from a snapshot
+ * plus the events after it.
+ */
+class EventLogTest {
+
+    // Four events per segment, so a handful of appends crosses segment boundaries
+    private static final long SEGMENT_BYTES = 4L * EventLog.RECORD_BYTES;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void rollsOverToNewSegmentsAndReadsEveryEventBack() throws Exception {
+        EventLog log = open();
+        for (long transactionId = 1; transactionId <= 10; transactionId++) {
+            log.append(BorrowingEvent.Type.BORROWED, transactionId, 100, 200, 20_000);
+        }
+
+        assertEquals(10, log.size());
+        assertEquals(3, segmentCount());
+        List<BorrowingEvent> history = log.bookHistory(100);
+        assertEquals(10, history.size());
+        for (int i = 0; i < history.size(); i++) {
+            assertEquals(i, history.get(i).sequence());
+            assertEquals(i + 1, history.get(i).transactionId());
+        }
+    }
+
+    @Test
+    void reopensMidSegmentAndAppendsAfterTheLastEvent() {
+        EventLog log = open();
+        for (long transactionId = 1; transactionId <= 6; transactionId++) {
+            log.append(BorrowingEvent.Type.BORROWED, transactionId, 100, 200, 20_000);
+        }
+        log.close();
+
+        EventLog reopened = open();
+        assertEquals(6, reopened.size());
+        assertEquals(6, reopened.book(100).getOnLoan());
+
+        reopened.append(BorrowingEvent.Type.RETURNED, 1, 100, 200, 150);
+        List<BorrowingEvent> history = reopened.memberHistory(200);
+        assertEquals(7, history.size());
+        assertEquals(6, history.get(6).sequence());
+        assertEquals(BorrowingEvent.Type.RETURNED, history.get(6).type());
+        assertEquals(1.5, history.get(6).amount());
+        assertEquals(5, reopened.book(100).getOnLoan());
+    }
+
+    @Test
+    void reopensAtAnExactlyFullSegmentAndStartsTheNextOne() throws Exception {
+        EventLog log = open();
+        for (long transactionId = 1; transactionId <= 4; transactionId++) {
+            log.append(BorrowingEvent.Type.BORROWED, transactionId, 100, 200, 20_000);
+        }
+        log.close();
+        assertEquals(1, segmentCount());
+
+        EventLog reopened = open();
+        assertEquals(4, reopened.size());
+        reopened.append(BorrowingEvent.Type.EXTENDED, 4, 100, 200, 20_014);
+
+        assertEquals(5, reopened.size());
+        assertEquals(2, segmentCount());
+        List<BorrowingEvent> history = reopened.bookHistory(100);
+        assertEquals(5, history.size());
+        assertEquals(4, history.get(4).sequence());
+        assertEquals(BorrowingEvent.Type.EXTENDED, history.get(4).type());
+        assertEquals(1, reopened.book(100).getExtensions());
+    }
+
+    @Test
+    void rebuildsFromTheSnapshotPlusTheEventsAfterIt() {
+        EventLog log = open();
+        for (long transactionId = 1; transactionId <= 5; transactionId++) {
+            log.append(BorrowingEvent.Type.BORROWED, transactionId, 100 + transactionId % 2, 200, 20_000);
+        }
+        log.snapshot();
+        log.append(BorrowingEvent.Type.RETURNED, 1, 101, 200, 0);
+        log.append(BorrowingEvent.Type.LOST, 2, 100, 200, 2_500);
+        log.append(BorrowingEvent.Type.BORROWED, 6, 102, 201, 20_001);
+        log.close();
+
+        EventLog reopened = open();
+        EventLog.ReplayResult fromSnapshot = reopened.rebuild(true);
+        assertEquals(5, fromSnapshot.getFromSequence());
+        assertEquals(3, fromSnapshot.getEventsReplayed());
+        assertState(reopened);
+
+        EventLog.ReplayResult full = reopened.rebuild(false);
+        assertEquals(0, full.getFromSequence());
+        assertEquals(8, full.getEventsReplayed());
+        assertState(reopened);
+    }
+
+    @Test
+    void ignoresASnapshotAheadOfTheLog() throws Exception {
+        EventLog log = open();
+        for (long transactionId = 1; transactionId <= 3; transactionId++) {
+            log.append(BorrowingEvent.Type.BORROWED, transactionId, 100, 200, 20_000);
+        }
+        log.snapshot();
+        log.close();
+        // The segments are lost but the snapshot survives
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.filter(path -> path.getFileName().toString().startsWith("segment-")).toList()) {
+                Files.delete(file);
+            }
+        }
+
+        EventLog reopened = open();
+        assertEquals(0, reopened.size());
+        assertNull(reopened.book(100));
+    }
+
+    private void assertState(EventLog log) {
+        CirculationState.BookCirculation even = log.book(100);
+        assertEquals(2, even.getLoans());
+        assertEquals(1, even.getLost());
+        assertEquals(1, even.getOnLoan());
+
+        CirculationState.BookCirculation odd = log.book(101);
+        assertEquals(3, odd.getLoans());
+        assertEquals(1, odd.getReturns());
+        assertEquals(2, odd.getOnLoan());
+
+        CirculationState.MemberCirculation member = log.member(200);
+        assertEquals(5, member.getLoans());
+        assertEquals(3, member.getOnLoan());
+        assertEquals(2_500, member.getFineCents());
+        assertEquals(1, log.member(201).getOnLoan());
+    }
+
+    private EventLog open() {
+        EventLog log = new EventLog(true, directory.toString(), SEGMENT_BYTES);
+        log.open();
+        return log;
+    }
+
+    private long segmentCount() throws Exception {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().startsWith("segment-")).count();
+        }
+    }
+}
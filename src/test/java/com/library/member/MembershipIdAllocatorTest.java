@@ -0,0 +1,76 @@
+package com.library.member;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Membership ids handed out concurrently by several nodes sharing one database must never repeat, and every id
+ * must carry a valid check digit.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class MembershipIdAllocatorTest {
+
+    private static final int NODES = 4;
+    private static final int IDS_PER_NODE = 2000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void nodesSharingTheSequenceNeverHandOutTheSameId() throws Exception {
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        List<MembershipIdAllocator> allocators = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(NODES * 2)) {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int node = 0; node < NODES; node++) {
+                // Small blocks so the nodes race for the sequence row all the time
+                MembershipIdAllocator allocator = new MembershipIdAllocator(jdbcTemplate, transactionManager, 7);
+                allocators.add(allocator);
+                for (int thread = 0; thread < 2; thread++) {
+                    futures.add(executor.submit(() -> {
+                        for (int i = 0; i < IDS_PER_NODE / 2; i++) {
+                            ids.add(allocator.nextId());
+                        }
+                    }));
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            allocators.forEach(MembershipIdAllocator::shutdown);
+        }
+
+        assertEquals(NODES * IDS_PER_NODE, ids.size());
+        for (String id : ids) {
+            assertTrue(id.matches("M\\d{8,}"), id);
+            long number = Long.parseLong(id.substring(1, id.length() - 1));
+            assertEquals(MembershipIdAllocator.checkDigit(number), id.charAt(id.length() - 1) - '0', id);
+        }
+    }
+
+    @Test
+    void checkDigitFollowsLuhn() {
+        assertEquals(3, MembershipIdAllocator.checkDigit(7992739871L));
+        assertEquals("M10000008", MembershipIdAllocator.format(1_000_000));
+    }
+}
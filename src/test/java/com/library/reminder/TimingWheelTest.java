@@ -0,0 +1,136 @@
+package com.library.reminder;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Placement, cascading between levels, cancelling and parking of timers beyond the top level.
+ */
+class TimingWheelTest {
+
+    // 16 buckets per level: level 0 spans 16 ticks, level 1 256, level 2 4096
+    private static final int BITS = 4;
+
+    @Test
+    void firesEachTimerOnItsOwnTickAcrossLevels() {
+        TimingWheel<Long> wheel = new TimingWheel<>(BITS, 3, 0);
+        long[] deadlines = {1, 15, 16, 17, 255, 256, 257, 300, 4095};
+        for (long deadline : deadlines) {
+            wheel.schedule(deadline, deadline);
+        }
+
+        List<long[]> fired = new ArrayList<>();
+        for (long tick = 1; tick <= 4095; tick++) {
+            long now = tick;
+            wheel.advanceTo(tick, deadline -> fired.add(new long[]{deadline, now}));
+        }
+
+        assertEquals(deadlines.length, fired.size());
+        for (int i = 0; i < deadlines.length; i++) {
+            assertEquals(deadlines[i], fired.get(i)[0]);
+            assertEquals(deadlines[i], fired.get(i)[1], "fired on its deadline tick");
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cascadesTimersScheduledFromAnOffsetStart() {
+        // A start that is not on a bucket boundary of any level
+        TimingWheel<Long> wheel = new TimingWheel<>(BITS, 3, 1_000_003);
+        Random random = new Random(7);
+        TreeMap<Long, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 2_000; i++) {
+            long deadline = 1_000_004 + random.nextInt(4_000);
+            wheel.schedule(deadline, deadline);
+            expected.merge(deadline, 1, Integer::sum);
+        }
+
+        List<Long> fired = new ArrayList<>();
+        long[] lastTick = {0};
+        for (long tick = 1_000_004; tick <= 1_005_000; tick++) {
+            long now = tick;
+            wheel.advanceTo(tick, deadline -> {
+                assertEquals(now, deadline.longValue());
+                fired.add(deadline);
+                lastTick[0] = now;
+            });
+        }
+
+        assertEquals(2_000, fired.size());
+        assertEquals(expected.lastKey(), lastTick[0]);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelledTimersNeverFire() {
+        TimingWheel<String> wheel = new TimingWheel<>(BITS, 3, 0);
+        TimingWheel.Timer<String> near = wheel.schedule(5, "near");
+        TimingWheel.Timer<String> far = wheel.schedule(600, "far");
+        wheel.schedule(600, "kept");
+        assertEquals(3, wheel.size());
+
+        assertTrue(wheel.cancel(near));
+        assertTrue(wheel.cancel(far));
+        assertFalse(wheel.cancel(far), "a timer is cancelled only once");
+        assertEquals(1, wheel.size());
+
+        List<String> fired = new ArrayList<>();
+        wheel.advanceTo(1_000, fired::add);
+        assertEquals(List.of("kept"), fired);
+        assertFalse(wheel.cancel(near));
+    }
+
+    @Test
+    void cancelsATimerAfterItCascadedDownALevel() {
+        TimingWheel<String> wheel = new TimingWheel<>(BITS, 3, 0);
+        TimingWheel.Timer<String> timer = wheel.schedule(300, "moved");
+
+        List<String> fired = new ArrayList<>();
+        // Tick 256 cascades the level-1 bucket holding the timer into level 0
+        wheel.advanceTo(290, fired::add);
+        assertTrue(wheel.cancel(timer));
+        wheel.advanceTo(400, fired::add);
+
+        assertTrue(fired.isEmpty());
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void parksTimersBeyondTheTopLevelUntilTheyComeInRange() {
+        // Two levels span 256 ticks; these are several spans out
+        TimingWheel<Long> wheel = new TimingWheel<>(BITS, 2, 0);
+        wheel.schedule(1_000, 1_000L);
+        wheel.schedule(5_000, 5_000L);
+
+        List<long[]> fired = new ArrayList<>();
+        for (long tick = 1; tick <= 6_000; tick++) {
+            long now = tick;
+            wheel.advanceTo(tick, deadline -> fired.add(new long[]{deadline, now}));
+            if (tick < 1_000) {
+                assertTrue(fired.isEmpty(), "nothing fires before its deadline");
+            }
+        }
+
+        assertEquals(2, fired.size());
+        assertEquals(1_000, fired.get(0)[1]);
+        assertEquals(5_000, fired.get(1)[1]);
+    }
+
+    @Test
+    void firesPassedDeadlinesOnTheNextTick() {
+        TimingWheel<String> wheel = new TimingWheel<>(BITS, 3, 100);
+        wheel.schedule(50, "late");
+
+        List<String> fired = new ArrayList<>();
+        wheel.advanceTo(101, fired::add);
+        assertEquals(List.of("late"), fired);
+    }
+}
@@ -0,0 +1,130 @@
+package com.library.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * BM25 ranking, prefix expansion, and index maintenance: replaced and removed books must leave no stale hits,
+ * and compacting posting lists must keep every live entry.
+ */
+class BookSearchIndexTest {
+
+    private final BookSearchIndex index = new BookSearchIndex();
+
+    @Test
+    void ranksByFieldBoostsAndTermRarity() {
+        index.index(book(1, "Gardening for beginners", "Includes a chapter on java coffee plants", List.of()));
+        index.index(book(2, "Java concurrency in practice", null, List.of("Brian Goetz")));
+        index.index(book(3, "Effective Java", null, List.of("Joshua Bloch")));
+        index.index(book(4, "Clean code", null, List.of("Robert Martin")));
+
+        List<Long> hits = index.search("java", 0, 10).bookIds();
+        assertEquals(3, hits.size());
+        // A title match outweighs a summary match
+        assertEquals(1L, hits.get(2));
+        // The rarer term decides between two java titles
+        assertEquals(List.of(2L), index.search("java concurrency", 0, 1).bookIds());
+        assertEquals(List.of(3L), index.search("bloch", 0, 10).bookIds());
+        assertEquals(List.of(3L), index.search("effective java", 0, 1).bookIds());
+    }
+
+    @Test
+    void matchesIsbnWithOrWithoutSeparators() {
+        index.index(new BookDocument(1L, "Some title", null, "978-0-13-468599-1", List.of(), null, null, Map.of(),
+                null, null, true));
+
+        assertEquals(List.of(1L), index.search("9780134685991", 0, 10).bookIds());
+        assertEquals(List.of(1L), index.search("978 0 13 468599 1", 0, 10).bookIds());
+    }
+
+    @Test
+    void expandsTheLastTermAsAPrefix() {
+        index.index(book(1, "Programming pearls", null, List.of()));
+        index.index(book(2, "The pragmatic programmer", null, List.of()));
+        index.index(book(3, "Pro git", null, List.of()));
+
+        assertEquals(2, index.search("program", 0, 10).total());
+        assertEquals(3, index.search("pro", 0, 10).total());
+        // Too short to expand
+        assertEquals(0, index.search("pr", 0, 10).total());
+        // An exact match outranks its expansions
+        assertEquals(List.of(3L), index.search("pro", 0, 1).bookIds());
+        // Only the last token is expanded
+        assertTrue(index.search("progr git", 0, 10).bookIds().contains(3L));
+        assertFalse(index.search("progr git", 0, 10).bookIds().contains(1L));
+    }
+
+    @Test
+    void replacedAndRemovedBooksLeaveNoStaleHits() {
+        index.index(book(1, "Dune", null, List.of("Frank Herbert")));
+        index.index(book(2, "Dune messiah", null, List.of("Frank Herbert")));
+
+        index.index(book(1, "Children of Dune", null, List.of("Frank Herbert")));
+        assertEquals(2, index.search("dune", 0, 10).total());
+        assertEquals(List.of(1L), index.search("children", 0, 10).bookIds());
+
+        index.index(book(2, "Hyperion", null, List.of("Dan Simmons")));
+        assertEquals(List.of(1L), index.search("dune", 0, 10).bookIds());
+        assertEquals(List.of(1L), index.search("herbert", 0, 10).bookIds());
+
+        index.remove(1L);
+        assertEquals(0, index.search("dune", 0, 10).total());
+        assertEquals(0, index.search("herbert", 0, 10).total());
+        assertEquals(List.of(2L), index.search("hyperion", 0, 10).bookIds());
+        assertEquals(1, index.size());
+        // Removed terms are no longer offered as prefix expansions
+        assertEquals(0, index.search("herb", 0, 10).total());
+    }
+
+    @Test
+    void compactionKeepsEveryLiveEntry() {
+        for (long id = 1; id <= 1_000; id++) {
+            index.index(book(id, "Shared title " + id, null, List.of()));
+        }
+        // Remove most books and reindex others several times, so "shared" is compacted repeatedly
+        for (long id = 1; id <= 1_000; id++) {
+            if (id % 10 != 0) {
+                index.remove(id);
+            }
+        }
+        for (int round = 0; round < 5; round++) {
+            for (long id = 10; id <= 1_000; id += 10) {
+                index.index(book(id, "Shared title " + id + " round " + round, null, List.of()));
+            }
+        }
+
+        BookSearchIndex.SearchHits hits = index.search("shared", 0, 1_000);
+        assertEquals(100, hits.total());
+        assertEquals(100, hits.bookIds().stream().distinct().count());
+        assertTrue(hits.bookIds().stream().allMatch(id -> id % 10 == 0));
+        assertEquals(100, index.size());
+        assertEquals(List.of(500L), index.search("500", 0, 10).bookIds());
+        assertEquals(0, index.search("501", 0, 10).total());
+    }
+
+    @Test
+    void removedBooksDoNotSkewScoresOfTheRest() {
+        index.index(book(1, "Rust in action", null, List.of()));
+        index.index(book(2, "Rust for rustaceans", null, List.of()));
+        double before = index.score("rust").get(1L);
+
+        for (long id = 100; id < 200; id++) {
+            index.index(book(id, "Rust filler " + id, null, List.of()));
+        }
+        for (long id = 100; id < 200; id++) {
+            index.remove(id);
+        }
+
+        assertEquals(before, index.score("rust").get(1L), 1e-9);
+    }
+
+    private static BookDocument book(long id, String title, String summary, List<String> authors) {
+        return new BookDocument(id, title, summary, null, authors, null, null, Map.of(), null, null, true);
+    }
+}
@@ -0,0 +1,98 @@
+package com.library.search;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Fuzzy member lookups: typos, partial names, emails, phone numbers and membership ids, plus index maintenance
+ * and lookup latency over a large synthetic membership.
+ */
+@Slf4j
+class MemberTrigramIndexTest {
+
+    private static final String[] FIRST_NAMES = {"James", "Mary", "John", "Patricia", "Robert", "Jennifer",
+            "Michael", "Linda", "William", "Elizabeth", "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica"};
+    private static final String[] LAST_NAMES = {"Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia",
+            "Miller", "Davis", "Rodriguez", "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson"};
+
+    private final MemberTrigramIndex index = new MemberTrigramIndex(true);
+
+    @Test
+    void toleratesTyposAndFindsEveryField() {
+        index.index(new MemberDocument(1L, "Grace", "Hopper", "grace.hopper@navy.mil", "+1 (555) 010-2030", "M10000008"));
+        index.index(new MemberDocument(2L, "Ada", "Lovelace", "ada@example.com", "555 010 9999", "M10000016"));
+        index.index(new MemberDocument(3L, "Alan", "Turing", "alan.turing@example.com", null, "M10000024"));
+
+        assertEquals(1L, first("grace hoper"));
+        assertEquals(1L, first("Hopp"));
+        assertEquals(2L, first("lovelase"));
+        assertEquals(3L, first("alan.turing@gmail.com"));
+        assertEquals(1L, first("555-010-2030"));
+        assertEquals(2L, first("M10000016"));
+        assertEquals(3L, first("T\u00fcring"));
+        assertTrue(index.search("zzzz", 0, 10).memberIds().isEmpty());
+    }
+
+    @Test
+    void followsUpdatesAndRemovals() {
+        MemberDocument before = new MemberDocument(7L, "Margaret", "Hamilton", "mh@example.com", null, "M10000057");
+        index.index(before);
+        MemberDocument after = new MemberDocument(7L, "Margaret", "Heafield", "mh@example.com", null, "M10000057");
+
+        index.replace(before, after);
+        assertFalse(index.search("hamilton", 0, 10).memberIds().contains(7L));
+        assertEquals(7L, first("heafield"));
+
+        index.remove(after);
+        assertTrue(index.search("margaret", 0, 10).memberIds().isEmpty());
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    void answersLookupsOverALargeMembershipQuickly() {
+        int members = 200_000;
+        Random random = new Random(42);
+        long start = System.nanoTime();
+        for (int id = 1; id <= members; id++) {
+            String first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+            String last = LAST_NAMES[random.nextInt(LAST_NAMES.length)] + random.nextInt(1000);
+            index.index(new MemberDocument((long) id, first, last,
+                    first.toLowerCase() + "." + last.toLowerCase() + "@example.com",
+                    String.format("555%07d", random.nextInt(10_000_000)), "M" + (1_000_000 + id)));
+        }
+        log.info("Indexed {} members in {} ms", members, (System.nanoTime() - start) / 1_000_000);
+
+        List<String> queries = List.of("jenifer rodrigez412", "Wilson77", "M1150000", "mary.smith5@example.com",
+                "5551234567", "barbra");
+        long[] latencies = new long[200];
+        for (int i = 0; i < latencies.length; i++) {
+            long queryStart = System.nanoTime();
+            index.search(queries.get(i % queries.size()), 0, 20);
+            latencies[i] = System.nanoTime() - queryStart;
+        }
+        Arrays.sort(latencies);
+        double p50Ms = latencies[latencies.length / 2] / 1e6;
+        double p99Ms = latencies[latencies.length * 99 / 100] / 1e6;
+        log.info("Member lookup over {} members: p50 {} ms, p99 {} ms",
+                members, String.format("%.2f", p50Ms), String.format("%.2f", p99Ms));
+
+        assertEquals(members, index.size());
+        // Loose bound, far above the expected figure, to catch a lookup that degrades to a full scan
+        assertTrue(p50Ms < 100, "median lookup took " + p50Ms + " ms");
+        assertTrue(index.search("M1150000", 0, 1).memberIds().contains(150_000L));
+    }
+
+    private long first(String query) {
+        List<Long> ids = index.search(query, 0, 1).memberIds();
+        assertFalse(ids.isEmpty(), "no match for " + query);
+        return ids.get(0);
+    }
+}
@@ -0,0 +1,91 @@
+package com.library.service;
+
+import com.library.entity.Book;
+import com.library.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Many desks lending the same title at once must never hand out more copies than exist.
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("test")
+class BookAvailabilityContentionTest {
+
+    private static final int COPIES = 50;
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 25;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @AfterEach
+    void cleanUp() {
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentCheckoutsOfOneHotTitleNeverOversell() throws Exception {
+        Book book = new Book();
+        book.setTitle("Hot Title");
+        book.setIsbn("9780000000001");
+        book.setTotalCopies(COPIES);
+        book.setAvailableCopies(COPIES);
+        Long bookId = bookRepository.save(book).getId();
+
+        AtomicInteger lent = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService desks = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(desks.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    try {
+                        bookService.updateBookAvailability(bookId, -1);
+                        lent.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+        desks.shutdown();
+
+        int attempts = THREADS * ATTEMPTS_PER_THREAD;
+        log.info("Contention benchmark: {} checkouts on one title by {} threads in {} ms ({} ops/s)",
+                attempts, THREADS, String.format("%.1f", elapsedNanos / 1e6),
+                Math.round(attempts / (elapsedNanos / 1e9)));
+
+        assertEquals(COPIES, lent.get());
+        assertEquals(attempts - COPIES, rejected.get());
+        assertEquals(0, bookRepository.findById(bookId).orElseThrow().getAvailableCopies());
+    }
+}
@@ -0,0 +1,131 @@
+package com.library.service;
+
+import com.library.dto.BookResponse;
+import com.library.entity.Author;
+import com.library.entity.Book;
+import com.library.entity.Category;
+import com.library.entity.Publisher;
+import com.library.mapper.BookMapper;
+import com.library.repository.AuthorRepository;
+import com.library.repository.BookRepository;
+import com.library.repository.CategoryRepository;
+import com.library.repository.PublisherRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Listing books with authors, publisher and categories must cost the same number of statements for any page size.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BookFetchPlanTest {
+
+    private static final int BOOKS = 30;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookMapper bookMapper;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private AuthorRepository authorRepository;
+
+    @Autowired
+    private PublisherRepository publisherRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void createCatalog() {
+        Publisher publisher = new Publisher();
+        publisher.setName("Fetch Plan Press");
+        publisher = publisherRepository.save(publisher);
+
+        List<Author> authors = authorRepository.saveAll(List.of(author("Ada", "Lovelace"), author("Alan", "Turing")));
+        List<Category> categories = categoryRepository.saveAll(List.of(category("Computing"), category("History")));
+
+        for (int i = 0; i < BOOKS; i++) {
+            Book book = new Book();
+            book.setTitle("Book " + i);
+            book.setIsbn("97800000010" + String.format("%02d", i));
+            book.setTotalCopies(1);
+            book.setAvailableCopies(1);
+            book.setPublisher(publisher);
+            book.setAuthors(Set.copyOf(authors));
+            book.setCategories(Set.copyOf(categories));
+            bookRepository.save(book);
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        bookRepository.deleteAll();
+        authorRepository.deleteAll();
+        categoryRepository.deleteAll();
+        publisherRepository.deleteAll();
+    }
+
+    @Test
+    void pageOfFullBookResponsesUsesConstantNumberOfStatements() {
+        long smallPage = statementsToList(5);
+        long largePage = statementsToList(BOOKS);
+
+        assertEquals(smallPage, largePage);
+        // id page + count + authors/publisher fetch + categories fetch
+        assertTrue(largePage <= 4, "expected at most 4 statements but was " + largePage);
+    }
+
+    private long statementsToList(int pageSize) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        Page<Book> page = bookService.getAllBooks(PageRequest.of(0, pageSize));
+        // Mapped after the transaction ended: any relation left uninitialised would fail here
+        List<BookResponse> responses = page.map(bookMapper::toResponse).getContent();
+
+        assertEquals(pageSize, responses.size());
+        for (BookResponse response : responses) {
+            assertEquals(2, response.getAuthors().size());
+            assertEquals(2, response.getCategories().size());
+            assertNotNull(response.getPublisher());
+        }
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static Author author(String firstName, String lastName) {
+        Author author = new Author();
+        author.setFirstName(firstName);
+        author.setLastName(lastName);
+        return author;
+    }
+
+    private static Category category(String name) {
+        Category category = new Category();
+        category.setName(name);
+        return category;
+    }
+}
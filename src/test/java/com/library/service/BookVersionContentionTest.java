@@ -0,0 +1,134 @@
+package com.library.service;
+
+import com.library.concurrency.OptimisticRetry;
+import com.library.entity.Book;
+import com.library.repository.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Concurrent copy changes on one title must never lose an update; compares optimistic versioning with retries
+ * against the pessimistic row lock addCopies takes, which needs no retry.
+ */
+// Enough attempts that no caller gives up under the benchmark's contention
+@Slf4j
+@SpringBootTest(properties = "library.concurrency.retry.max-attempts=50")
+@ActiveProfiles("test")
+class BookVersionContentionTest {
+
+    private static final int THREADS = 8;
+    private static final int CHANGES_PER_THREAD = 25;
+
+    @Autowired
+    private BookService bookService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void staleBookWriteIsRejectedAfterAtomicCopyUpdate() {
+        Long bookId = createBook("9780000000101", 5);
+        Book stale = bookRepository.findById(bookId).orElseThrow();
+
+        bookService.updateBookAvailability(bookId, -1);
+
+        stale.setTotalCopies(stale.getTotalCopies() + 1);
+        assertThrows(OptimisticLockingFailureException.class, () -> bookRepository.save(stale));
+        assertEquals(4, bookRepository.findById(bookId).orElseThrow().getAvailableCopies());
+    }
+
+    @Test
+    void optimisticRetriesAndPessimisticLocksBothKeepEveryCopyChange() throws Exception {
+        int changes = THREADS * CHANGES_PER_THREAD;
+
+        Long optimisticId = createBook("9780000000102", 1);
+        long optimisticNanos = contend(() -> optimisticRetry.run("versionedAddCopies", () ->
+                transactionTemplate.executeWithoutResult(status -> {
+                    Book book = bookRepository.findById(optimisticId).orElseThrow();
+                    book.setTotalCopies(book.getTotalCopies() + 1);
+                    book.setAvailableCopies(book.getAvailableCopies() + 1);
+                })));
+
+        // No retry around addCopies: its row lock alone must keep every change
+        Long pessimisticId = createBook("9780000000103", 1);
+        long pessimisticNanos = contend(() -> bookService.addCopies(pessimisticId, 1));
+
+        log.info("Contention benchmark: {} copy changes on one title by {} threads; optimistic + retry {} ms "
+                        + "({} ops/s), pessimistic lock {} ms ({} ops/s)",
+                changes, THREADS, String.format("%.1f", optimisticNanos / 1e6),
+                Math.round(changes / (optimisticNanos / 1e9)), String.format("%.1f", pessimisticNanos / 1e6),
+                Math.round(changes / (pessimisticNanos / 1e9)));
+        optimisticRetry.getStatistics().forEach(stats -> log.info("Retry statistics: {}", stats));
+
+        assertEquals(1 + changes, bookRepository.findById(optimisticId).orElseThrow().getTotalCopies());
+        assertEquals(1 + changes, bookRepository.findById(pessimisticId).orElseThrow().getTotalCopies());
+    }
+
+    private long contend(Runnable change) throws Exception {
+        AtomicInteger failed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService desks = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(desks.submit(() -> {
+                start.await();
+                for (int i = 0; i < CHANGES_PER_THREAD; i++) {
+                    try {
+                        change.run();
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+        desks.shutdown();
+
+        assertEquals(0, failed.get());
+        return elapsedNanos;
+    }
+
+    private Long createBook(String isbn, int copies) {
+        Book book = new Book();
+        book.setTitle("Contended Title");
+        book.setIsbn(isbn);
+        book.setTotalCopies(copies);
+        book.setAvailableCopies(copies);
+        return bookRepository.save(book).getId();
+    }
+}
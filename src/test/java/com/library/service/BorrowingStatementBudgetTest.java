@@ -0,0 +1,153 @@
+package com.library.service;
+
+import com.library.entity.Book;
+import com.library.entity.BorrowingTransaction;
+import com.library.entity.Member;
+import com.library.entity.SystemUser;
+import com.library.repository.BookRepository;
+import com.library.repository.BorrowingTransactionRepository;
+import com.library.repository.MemberRepository;
+import com.library.repository.SystemUserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checkout is the hottest write path: its statement count per call must not creep back up.
+ */
+// The availability refresher would otherwise run its own queries while statements are being counted
+@SpringBootTest(properties = "library.index.availability-refresh-ms=3600000")
+@ActiveProfiles("test")
+class BorrowingStatementBudgetTest {
+
+    // One query, one guarded update and one insert per checkout, besides the amortized id allocation
+    private static final int BORROW_BUDGET = 3;
+    // With the warm-up, as many as one member may borrow
+    private static final int CHECKOUTS = 4;
+
+    // allocationSize of the borrowing_seq generator
+    private static final int ID_BLOCK = 50;
+
+    @Autowired
+    private BorrowingService borrowingService;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private MemberRepository memberRepository;
+
+    @Autowired
+    private SystemUserRepository userRepository;
+
+    @Autowired
+    private BorrowingTransactionRepository borrowingRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Long memberId;
+    private Long userId;
+
+    @BeforeEach
+    void createLibrary() {
+        Member member = new Member();
+        member.setMembershipId("M00001");
+        member.setFirstName("Grace");
+        member.setLastName("Hopper");
+        member.setEmail("grace.hopper@example.com");
+        member.setMembershipDate(LocalDate.now());
+        member.setMembershipExpiry(LocalDate.now().plusYears(1));
+        member.setStatus(Member.MembershipStatus.ACTIVE);
+        memberId = memberRepository.save(member).getId();
+
+        SystemUser user = new SystemUser();
+        user.setUsername("desk");
+        user.setPassword("secret");
+        user.setEmail("desk@example.com");
+        user.setFirstName("Front");
+        user.setLastName("Desk");
+        user.setRole(SystemUser.Role.LIBRARIAN);
+        userId = userRepository.save(user).getId();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        borrowingRepository.deleteAll();
+        bookRepository.deleteAll();
+        memberRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void borrowBookStaysWithinStatementBudget() {
+        // Warm up: fills the second-level cache with the issuing user
+        borrowingService.borrowBook(book("9780000000101"), memberId, userId);
+
+        List<Long> bookIds = new ArrayList<>();
+        for (int i = 0; i < CHECKOUTS; i++) {
+            bookIds.add(book(String.format("97800000002%02d", i)));
+        }
+        Statistics statistics = statistics();
+        statistics.clear();
+
+        for (Long bookId : bookIds) {
+            BorrowingTransaction transaction = borrowingService.borrowBook(bookId, memberId, userId);
+            assertEquals(BorrowingTransaction.TransactionStatus.BORROWED, transaction.getStatus());
+        }
+
+        long statements = statistics.getPrepareStatementCount();
+        // Transaction ids come from a pooled sequence: one round trip per ID_BLOCK checkouts, wherever the run
+        // starts in a block
+        long budget = (long) BORROW_BUDGET * CHECKOUTS + (CHECKOUTS + ID_BLOCK - 1) / ID_BLOCK;
+        assertEquals(0, bookRepository.findById(bookIds.get(0)).orElseThrow().getAvailableCopies());
+        assertTrue(statements <= budget, "expected at most " + budget + " statements for " + CHECKOUTS +
+                " checkouts but was " + statements);
+    }
+
+    @Test
+    void rejectedCheckoutKeepsItsErrorMessages() {
+        Long bookId = book("9780000000103");
+        borrowingService.borrowBook(bookId, memberId, userId);
+
+        RuntimeException unavailable = assertThrows(RuntimeException.class,
+                () -> borrowingService.borrowBook(bookId, memberId, userId));
+        assertEquals("Book is not available for borrowing", unavailable.getMessage());
+
+        RuntimeException missingBook = assertThrows(RuntimeException.class,
+                () -> borrowingService.borrowBook(-1L, memberId, userId));
+        assertEquals("Book not found with id: -1", missingBook.getMessage());
+
+        Long otherBookId = book("9780000000104");
+        RuntimeException missingMember = assertThrows(RuntimeException.class,
+                () -> borrowingService.borrowBook(otherBookId, -1L, userId));
+        assertEquals("Member not found with id: -1", missingMember.getMessage());
+    }
+
+    private Long book(String isbn) {
+        Book book = new Book();
+        book.setTitle("Budget " + isbn);
+        book.setIsbn(isbn);
+        book.setTotalCopies(1);
+        book.setAvailableCopies(1);
+        return bookRepository.save(book).getId();
+    }
+
+    private Statistics statistics() {
+        return entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+}